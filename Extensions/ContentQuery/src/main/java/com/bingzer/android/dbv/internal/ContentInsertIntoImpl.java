@@ -16,6 +16,7 @@
 package com.bingzer.android.dbv.internal;
 
 import android.content.ContentValues;
+import android.database.sqlite.SQLiteDatabase;
 import android.net.Uri;
 
 import com.bingzer.android.dbv.content.utils.UriUtils;
@@ -49,6 +50,38 @@ class ContentInsertIntoImpl extends QueryImpl<Long> implements InsertInto {
         return this;
     }
 
+    /**
+     * Inserts one row at a time
+     */
+    @Override
+    public IQuery<long[]> values(Object[]... rows) {
+        long[] range = { -1, -1 };
+        for(Object[] row : rows){
+            if(row.length != columnNames.length)
+                throw new IllegalArgumentException("Expected " + columnNames.length + " values, found " + row.length);
+
+            long id = val(row).query();
+            if(id < 0) continue;
+            if(range[0] < 0) range[0] = id;
+            range[1] = id;
+        }
+
+        QueryImpl<long[]> query = new QueryImpl<long[]>();
+        query.setValue(range);
+        return query;
+    }
+
+    /**
+     * Content providers don't support conflict resolution
+     * @throws UnsupportedOperationException unless <code>CONFLICT_NONE</code>
+     */
+    @Override
+    public InsertInto onConflict(int conflictAlgorithm) {
+        if(conflictAlgorithm != SQLiteDatabase.CONFLICT_NONE)
+            throw new UnsupportedOperationException("Conflict resolution is not supported by content providers");
+        return this;
+    }
+
     @Override
     public Long query() {
         return UriUtils.parseIdFromUri(value);
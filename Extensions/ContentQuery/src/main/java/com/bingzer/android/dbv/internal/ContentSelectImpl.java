@@ -17,15 +17,22 @@ package com.bingzer.android.dbv.internal;
 
 import android.database.Cursor;
 
+import com.bingzer.android.dbv.ColumnarResult;
 import com.bingzer.android.dbv.IEntity;
 import com.bingzer.android.dbv.IEntityList;
+import com.bingzer.android.dbv.ILazyEntityList;
+import com.bingzer.android.dbv.RowReader;
+import com.bingzer.android.dbv.RowStream;
 import com.bingzer.android.dbv.content.contracts.Selectable;
 import com.bingzer.android.dbv.queries.ISequence;
 import com.bingzer.android.dbv.queries.IQuery;
+import com.bingzer.android.dbv.utils.EntityUtils;
 import com.bingzer.android.dbv.utils.Utils;
 import com.bingzer.android.dbv.content.contracts.IBaseResolver;
 import com.bingzer.android.dbv.queries.Paging;
 
+import java.util.List;
+
 /**
  * Created by Ricky on 8/20/13.
  */
@@ -187,6 +194,14 @@ abstract class ContentSelectImpl implements Selectable.Select, Selectable.Select
             return  (int) Math.ceil(row / (float) rowLimit);
         }
 
+        /**
+         * There's no statistic for a content provider
+         */
+        @Override
+        public int getEstimatedTotalPage() {
+            return getTotalPage();
+        }
+
         @Override
         public Cursor query(){
             return fixSelect().query();
@@ -226,6 +241,64 @@ abstract class ContentSelectImpl implements Selectable.Select, Selectable.Select
             query(pageNumber, entityList);
         }
 
+        @Override
+        public <E extends IEntity> void query(E entity, ISequence<E> sequence) {
+            final Cursor cursor = query();
+            try{
+                EntityUtils.mapEntitySequenceFromCursor(resolver, entity, cursor, sequence);
+            }
+            finally {
+                cursor.close();
+            }
+        }
+
+        @Override
+        public <E extends IEntity> ILazyEntityList<E> queryLazy(IEntityList<E> entityList) {
+            return queryLazy(entityList, ILazyEntityList.DEFAULT_WINDOW_SIZE);
+        }
+
+        @Override
+        public <E extends IEntity> ILazyEntityList<E> queryLazy(IEntityList<E> entityList, int windowSize) {
+            return EntityUtils.newLazyEntityList(resolver, entityList, query(), windowSize);
+        }
+
+        @Override
+        public ColumnarResult queryColumns() {
+            return queryColumns(new ColumnarResult());
+        }
+
+        @Override
+        public ColumnarResult queryColumns(ColumnarResult result) {
+            final Cursor cursor = query();
+            try{
+                return result.read(cursor);
+            }
+            finally {
+                cursor.close();
+            }
+        }
+
+        @Override
+        public RowStream stream() {
+            return new RowStream(query());
+        }
+
+        @Override
+        public RowStream stream(int prefetchRows) {
+            return new RowStream(query(), prefetchRows);
+        }
+
+        @Override
+        public <T> List<T> queryAs(RowReader<T> reader) {
+            final Cursor cursor = query();
+            try{
+                return reader.readAll(cursor);
+            }
+            finally {
+                cursor.close();
+            }
+        }
+
         int getOffset(){
             return pageNumber * rowLimit;
         }
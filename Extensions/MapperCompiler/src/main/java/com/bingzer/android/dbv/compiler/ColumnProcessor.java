@@ -0,0 +1,302 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.compiler;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates an <code>IEntityMapper</code> (<code>EntityClass$$DbQueryMapper</code>)
+ * for every class that has <code>@Column</code> fields.
+ * The generated mapper includes the <code>@Column</code> fields of the super classes.
+ * <p>
+ * Annotations and library classes are referenced by their names, the processor
+ * doesn't depend on the library.
+ */
+@SupportedAnnotationTypes(ColumnProcessor.COLUMN)
+public class ColumnProcessor extends AbstractProcessor {
+
+    static final String COLUMN = "com.bingzer.android.dbv.annotations.Column";
+    static final String ANNOTATED_ENTITY = "com.bingzer.android.dbv.AnnotatedEntity";
+    static final String SUFFIX = "$$DbQueryMapper";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement columnElement = processingEnv.getElementUtils().getTypeElement(COLUMN);
+        if(columnElement == null) return false;
+
+        Set<TypeElement> entities = new LinkedHashSet<TypeElement>();
+        for(Element element : roundEnv.getElementsAnnotatedWith(columnElement)){
+            if(element.getKind() == ElementKind.FIELD)
+                entities.add((TypeElement) element.getEnclosingElement());
+        }
+
+        for(TypeElement entity : entities){
+            try{
+                generate(entity);
+            }
+            catch (IOException e){
+                error(entity, "Unable to generate mapper: " + e.getMessage());
+            }
+        }
+
+        return true;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void generate(TypeElement entity) throws IOException {
+        if(!isAnnotatedEntity(entity)){
+            error(entity, "@Column is only supported in " + ANNOTATED_ENTITY);
+            return;
+        }
+        if(entity.getModifiers().contains(Modifier.PRIVATE)){
+            error(entity, "@Column is not supported in a private class");
+            return;
+        }
+
+        List<Field> fields = new ArrayList<Field>();
+        if(!collectFields(entity, entity, fields)) return;
+
+        String packageName = getPackageName(entity);
+        String binaryName = processingEnv.getElementUtils().getBinaryName(entity).toString();
+        String mapperName = (packageName.length() == 0 ? binaryName : binaryName.substring(packageName.length() + 1)) + SUFFIX;
+        String entityName = processingEnv.getTypeUtils().erasure(entity.asType()).toString();
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(
+                (packageName.length() == 0 ? "" : packageName + ".") + mapperName, entity);
+        PrintWriter out = new PrintWriter(file.openWriter());
+        try{
+            write(out, packageName, mapperName, entityName, fields);
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Collects @Column fields of the type and its super classes (super class fields first)
+     * @return false if there's an error
+     */
+    private boolean collectFields(TypeElement entity, TypeElement type, List<Field> fields){
+        boolean valid = true;
+        TypeMirror superType = type.getSuperclass();
+        if(superType.getKind() == TypeKind.DECLARED){
+            valid = collectFields(entity, (TypeElement) ((DeclaredType) superType).asElement(), fields);
+        }
+
+        Set<String> columns = new HashSet<String>();
+        for(Field field : fields) columns.add(field.column);
+
+        for(Element element : type.getEnclosedElements()){
+            if(element.getKind() != ElementKind.FIELD) continue;
+
+            String column = getColumnName(element);
+            if(column == null) continue;
+
+            Set<Modifier> modifiers = element.getModifiers();
+            if(modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)){
+                error(element, "@Column field must not be private, static or final");
+                valid = false;
+                continue;
+            }
+            if(!modifiers.contains(Modifier.PUBLIC) && !getPackageName(type).equals(getPackageName(entity))){
+                error(element, "@Column field must be public or in the same package as " + entity.getQualifiedName());
+                valid = false;
+                continue;
+            }
+
+            FieldType fieldType = FieldType.of(processingEnv.getTypeUtils().erasure(element.asType()).toString());
+            if(fieldType == null){
+                error(element, "@Column type is not supported: " + element.asType());
+                valid = false;
+                continue;
+            }
+            if(!columns.add(column)){
+                error(element, "Duplicate @Column: " + column);
+                valid = false;
+                continue;
+            }
+
+            String owner = type == entity ? "entity" :
+                    "((" + processingEnv.getTypeUtils().erasure(type.asType()) + ") entity)";
+            fields.add(new Field(owner + "." + element.getSimpleName(), column, fieldType));
+        }
+
+        return valid;
+    }
+
+    private void write(PrintWriter out, String packageName, String mapperName, String entityName, List<Field> fields){
+        if(packageName.length() > 0){
+            out.println("package " + packageName + ";");
+            out.println();
+        }
+        out.println("import android.database.Cursor;");
+        out.println("import android.database.sqlite.SQLiteProgram;");
+        out.println();
+        out.println("import com.bingzer.android.dbv.Delegate;");
+        out.println("import com.bingzer.android.dbv.IEntity;");
+        out.println("import com.bingzer.android.dbv.IEntityMapper;");
+        out.println();
+        out.println("/**");
+        out.println(" * Generated by " + ColumnProcessor.class.getName() + ". Do not modify!");
+        out.println(" */");
+        out.println("public final class " + mapperName + " implements IEntityMapper<" + entityName + "> {");
+        out.println();
+        out.print("    private static final String[] COLUMNS = {");
+        for(int i = 0; i < fields.size(); i++){
+            out.print((i == 0 ? " \"" : ", \"") + fields.get(i).column + "\"");
+        }
+        out.println(" };");
+        out.println();
+
+        // -- getColumns
+        out.println("    @Override");
+        out.println("    public String[] getColumns() {");
+        out.println("        return COLUMNS;");
+        out.println("    }");
+        out.println();
+
+        // -- read
+        out.println("    @Override");
+        out.println("    public void read(" + entityName + " entity, Cursor cursor, int[] columnIndices) {");
+        out.println("        int index;");
+        for(int i = 0; i < fields.size(); i++){
+            Field field = fields.get(i);
+            out.println("        if((index = columnIndices[" + i + "]) >= 0) " + field.access + " = " + field.type.read() + ";");
+        }
+        out.println("    }");
+        out.println();
+
+        // -- bind
+        out.println("    @Override");
+        out.println("    public void bind(" + entityName + " entity, SQLiteProgram program, int startIndex) {");
+        for(int i = 0; i < fields.size(); i++){
+            Field field = fields.get(i);
+            String index = "startIndex + " + i;
+            String bind = "program." + field.type.bindMethod + "(" + index + ", " + field.type.bindValue(field.access) + ");";
+            if(field.type.isPrimitive())
+                out.println("        " + bind);
+            else
+                out.println("        if(" + field.access + " == null) program.bindNull(" + index + "); else " + bind);
+        }
+        out.println("    }");
+        out.println();
+
+        // -- map
+        out.println("    @Override");
+        out.println("    public void map(final " + entityName + " entity, IEntity.Mapper mapper) {");
+        for(Field field : fields){
+            FieldType type = field.type;
+            out.println("        mapper.map(\"" + field.column + "\", new Delegate." + type.delegateName + "() {");
+            if(type.isPrimitive()){
+                String accessor = type.accessorName();
+                out.println("            @Override public void set" + accessor + "(" + type.typeName + " value) { " + field.access + " = value; }");
+                out.println("            @Override public " + type.typeName + " get" + accessor + "() { return " + field.access + "; }");
+            }
+            else {
+                String typeName = type == FieldType.BYTES ? "byte[]" : type.boxedName;
+                out.println("            @Override public void set(" + typeName + " value) { " + field.access + " = value; }");
+                out.println("            @Override public " + typeName + " get() { return " + field.access + "; }");
+            }
+            out.println("        });");
+        }
+        out.println("    }");
+        out.println("}");
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private boolean isAnnotatedEntity(TypeElement entity){
+        TypeElement annotatedEntity = processingEnv.getElementUtils().getTypeElement(ANNOTATED_ENTITY);
+        return annotatedEntity != null && processingEnv.getTypeUtils().isAssignable(
+                processingEnv.getTypeUtils().erasure(entity.asType()),
+                processingEnv.getTypeUtils().erasure(annotatedEntity.asType()));
+    }
+
+    /**
+     * Returns the column name, null if the element is not annotated with @Column
+     */
+    private String getColumnName(Element element){
+        for(AnnotationMirror annotation : element.getAnnotationMirrors()){
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if(!annotationType.getQualifiedName().contentEquals(COLUMN)) continue;
+
+            for(Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()){
+                if(entry.getKey().getSimpleName().contentEquals("value")){
+                    String value = entry.getValue().getValue().toString();
+                    if(value.length() > 0) return value;
+                }
+            }
+            return element.getSimpleName().toString();
+        }
+
+        return null;
+    }
+
+    private String getPackageName(Element element){
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(element);
+        return packageElement.getQualifiedName().toString();
+    }
+
+    private void error(Element element, String message){
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static class Field {
+        final String access;
+        final String column;
+        final FieldType type;
+
+        Field(String access, String column, FieldType type){
+            this.access = access;
+            this.column = column;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.compiler;
+
+/**
+ * Supported field types. Knows how to read, bind and delegate each type
+ */
+enum FieldType {
+    STRING("java.lang.String", "String", "cursor.getString(index)", "bindString", "TypeString"),
+    BYTES("byte[]", "byte[]", "cursor.getBlob(index)", "bindBlob", "TypeBytes"),
+
+    INT("int", "Integer", "cursor.getInt(index)", "bindLong", "PrimitiveInt"),
+    LONG("long", "Long", "cursor.getLong(index)", "bindLong", "PrimitiveLong"),
+    SHORT("short", "Short", "cursor.getShort(index)", "bindLong", "PrimitiveShort"),
+    DOUBLE("double", "Double", "cursor.getDouble(index)", "bindDouble", "PrimitiveDouble"),
+    FLOAT("float", "Float", "cursor.getFloat(index)", "bindDouble", "PrimitiveFloat"),
+    BOOLEAN("boolean", "Boolean", "cursor.getInt(index) == 1", "bindLong", "PrimitiveBoolean"),
+
+    BOXED_INT("java.lang.Integer", "Integer", "cursor.getInt(index)", "bindLong", "TypeInteger"),
+    BOXED_LONG("java.lang.Long", "Long", "cursor.getLong(index)", "bindLong", "TypeLong"),
+    BOXED_SHORT("java.lang.Short", "Short", "cursor.getShort(index)", "bindLong", "TypeShort"),
+    BOXED_DOUBLE("java.lang.Double", "Double", "cursor.getDouble(index)", "bindDouble", "TypeDouble"),
+    BOXED_FLOAT("java.lang.Float", "Float", "cursor.getFloat(index)", "bindDouble", "TypeFloat"),
+    BOXED_BOOLEAN("java.lang.Boolean", "Boolean", "cursor.getInt(index) == 1", "bindLong", "TypeBoolean");
+
+    final String typeName;
+    final String boxedName;
+    final String readExpression;
+    final String bindMethod;
+    final String delegateName;
+
+    FieldType(String typeName, String boxedName, String readExpression, String bindMethod, String delegateName){
+        this.typeName = typeName;
+        this.boxedName = boxedName;
+        this.readExpression = readExpression;
+        this.bindMethod = bindMethod;
+        this.delegateName = delegateName;
+    }
+
+    /**
+     * Returns true if the type is a primitive (never null)
+     */
+    boolean isPrimitive(){
+        return delegateName.startsWith("Primitive");
+    }
+
+    /**
+     * Returns true if the value read from the cursor has to be checked for null
+     */
+    boolean isBoxed(){
+        return !isPrimitive() && this != STRING && this != BYTES;
+    }
+
+    /**
+     * Returns the expression that reads the value at <code>index</code> of <code>cursor</code>
+     */
+    String read(){
+        if(isBoxed())
+            return "cursor.isNull(index) ? null : " + boxedName + ".valueOf(" + readExpression + ")";
+        return readExpression;
+    }
+
+    /**
+     * Returns the expression to bind (the value is never null)
+     */
+    String bindValue(String value){
+        if(this == BOOLEAN || this == BOXED_BOOLEAN)
+            return value + " ? 1 : 0";
+        return value;
+    }
+
+    /**
+     * Returns the primitive accessor name of the delegate (i.e: "Int" for setInt/getInt)
+     */
+    String accessorName(){
+        return delegateName.substring("Primitive".length());
+    }
+
+    /**
+     * Finds the type by its name
+     * @return the type, null if not supported
+     */
+    static FieldType of(String typeName){
+        for(FieldType type : values()){
+            if(type.typeName.equals(typeName)) return type;
+        }
+        return null;
+    }
+}
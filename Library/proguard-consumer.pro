@@ -0,0 +1,8 @@
+# ProGuard rules applied to apps using DbQuery
+
+# Generated mappers are loaded by name (MapperUtils): keep them
+# and the names of the @Column entities they are looked up with
+-keep class **$$DbQueryMapper { <init>(); }
+-keepclasseswithmembernames class * {
+    @com.bingzer.android.dbv.annotations.Column <fields>;
+}
@@ -4,6 +4,7 @@ import android.content.Context;
 import android.database.Cursor;
 import android.test.AndroidTestCase;
 
+import java.util.Arrays;
 import java.util.UUID;
 
 import static org.mockito.Mockito.mock;
@@ -73,6 +74,124 @@ public class BaseEntityTest extends AndroidTestCase {
         assertNotSame(-1, person.getId());
     }
 
+    public void test_save_changedColumnsOnly(){
+        OrmPerson person = new OrmPerson();
+        assertTrue(person.load(person2Id));
+
+        // someone else changes the name
+        db.from("Person").update(person2Id).val("Name", "Person2-Renamed");
+        try{
+            // nothing changed, nothing written
+            assertTrue(person.save());
+            assertTrue(db.from("Person").has("Name = ?", "Person2-Renamed"));
+
+            // only Age is written
+            person.setAge(person.getAge() + 1);
+            assertTrue(person.save());
+            assertTrue(db.from("Person").has("Name = ? AND Age = ?", "Person2-Renamed", person.getAge()));
+
+            // Name is written once changed
+            person.setName("Person2");
+            assertTrue(person.save());
+            assertTrue(db.from("Person").has("Name = ? AND Age = ?", "Person2", person.getAge()));
+        }
+        finally {
+            db.from("Person").update(person2Id).val("Name", "Person2");
+        }
+    }
+
+    public void test_saveAll(){
+        OrmPerson person1 = new OrmPerson();
+        OrmPerson person2 = new OrmPerson();
+        OrmPerson person3 = new OrmPerson("Person3", 3);
+        assertTrue(person1.load(person1Id));
+        assertTrue(person2.load(person2Id));
+
+        // someone else changes the name
+        db.from("Person").update(person2Id).val("Name", "Person2-Renamed");
+        try{
+            person1.setAge(10);
+            assertTrue(BaseEntity.saveAll(Arrays.asList(person1, person2, person3)));
+
+            assertTrue(person3.getId() > 0);
+            assertTrue(db.from("Person").has("Name = ? AND Age = ?", "Person1", 10));
+            // nothing changed, nothing written
+            assertTrue(db.from("Person").has("Name = ?", "Person2-Renamed"));
+
+            // snapshots are taken
+            person3.setName("Person3-Renamed");
+            assertTrue(BaseEntity.saveAll(Arrays.asList(person1, person3)));
+            assertTrue(db.from("Person").has("Name = ? AND Age = ?", "Person1", 10));
+            assertTrue(db.from("Person").has("Name = ?", "Person3-Renamed"));
+        }
+        finally {
+            db.from("Person").update(person1Id).val("Age", 1);
+            db.from("Person").update(person2Id).val("Name", "Person2");
+            db.from("Person").delete("Name LIKE ?", "Person3%");
+        }
+    }
+
+    public void test_identityMap(){
+        Environment environment = new Environment(db);
+        assertNull(environment.getIdentityMap());
+
+        Environment.Scope scope = environment.beginScope();
+        try{
+            OrmPerson person = new OrmPerson(environment);
+            assertTrue(person.load(person1Id));
+            assertEquals(1, environment.getIdentityMap().size());
+
+            // changed behind the identity map
+            db.from("Person").update(person1Id).val("Name", "Person1-Renamed");
+
+            OrmPerson other = new OrmPerson(environment);
+            assertTrue(other.load(person1Id));
+            assertNotSame(person, other);
+            assertEquals("Person1", other.getName());
+            assertEquals(person.getAge(), other.getAge());
+
+            // fresh from the db
+            assertTrue(other.load());
+            assertEquals("Person1-Renamed", other.getName());
+
+            other.setName("Person1");
+            assertTrue(other.save());
+            assertTrue(other.delete());
+            assertEquals(0, environment.getIdentityMap().size());
+            assertFalse(new OrmPerson(environment).load(person1Id));
+        }
+        finally {
+            scope.close();
+        }
+
+        assertNull(environment.getIdentityMap());
+    }
+
+    public void test_identityMap_otherEntityClass(){
+        Environment environment = new Environment(db);
+        Environment.Scope scope = environment.beginScope();
+        try{
+            // only remembers the name
+            PersonName personName = new PersonName(environment);
+            assertTrue(personName.load(person2Id));
+            assertEquals("Person2", personName.name);
+
+            // age is not in the identity map, loaded from the db
+            OrmPerson person = new OrmPerson(environment);
+            assertTrue(person.load(person2Id));
+            assertEquals("Person2", person.getName());
+            assertEquals(2, person.getAge());
+
+            person.setName("Person2-Renamed");
+            assertTrue(person.save());
+            assertTrue(db.from("Person").has("Name = ? AND Age = ?", "Person2-Renamed", 2));
+        }
+        finally {
+            scope.close();
+            db.from("Person").update(person2Id).val("Name", "Person2");
+        }
+    }
+
     public void test_delete(){
         OrmPerson person = new OrmPerson();
         person.load(person1Id);
@@ -116,6 +235,35 @@ public class BaseEntityTest extends AndroidTestCase {
         assertEquals(2, person.getAge());
     }
 
+    public void test_load_cursor_partialColumns(){
+        Environment environment = new Environment(db);
+        Environment.Scope scope = environment.beginScope();
+        try{
+            OrmPerson person = new OrmPerson(environment);
+            person.setName("Person2-Local");
+            Cursor cursor = db.from("Person").select("Name = ?", "Person2").columns("Id", "Age").query();
+            try{
+                assertTrue(cursor.moveToNext());
+                assertTrue(person.load(cursor));
+            }
+            finally {
+                cursor.close();
+            }
+            assertEquals(2, person.getAge());
+            assertEquals("Person2-Local", person.getName());
+            // not a complete row
+            assertEquals(0, environment.getIdentityMap().size());
+
+            // name is unknown, so it's written
+            assertTrue(person.save());
+            assertTrue(db.from("Person").has("Name = ? AND Age = ?", "Person2-Local", 2));
+        }
+        finally {
+            scope.close();
+            db.from("Person").update(person2Id).val("Name", "Person2");
+        }
+    }
+
     /////////////////////////////////////////////////////////////////
 
     int insertCallbackCounter = 0;
@@ -191,4 +339,34 @@ public class BaseEntityTest extends AndroidTestCase {
         assertEquals(2, loadCallbackCounter);
     }
 
+    /////////////////////////////////////////////////////////////////
+
+    static class PersonName extends BaseEntity {
+        String name;
+
+        PersonName(IEnvironment environment){
+            super(environment);
+        }
+
+        @Override
+        public String getTableName() {
+            return "Person";
+        }
+
+        @Override
+        public void map(Mapper mapper) {
+            mapId(mapper);
+            mapper.map("Name", new Delegate.TypeString(){
+                @Override
+                public void set(String value) {
+                    name = value;
+                }
+                @Override
+                public String get() {
+                    return name;
+                }
+            });
+        }
+    }
+
 }
@@ -1,9 +1,17 @@
 package com.bingzer.android.dbv;
 
 import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Build;
 import android.test.AndroidTestCase;
 
+import com.bingzer.android.dbv.internal.Database;
+import com.bingzer.android.dbv.queries.ISequence;
 import com.bingzer.android.dbv.queries.InsertInto;
+import com.bingzer.android.dbv.utils.EntityUtils;
+
+import java.util.Map;
 
 /**
  * Created by Ricky Tobing on 8/12/13.
@@ -56,6 +64,115 @@ public class EntityListTest extends AndroidTestCase{
         assertTrue(personList.get(5).getName().equals("Montolivo"));
     }
 
+    public void testSelectEntityList_SomeColumns(){
+        PersonList personList = new PersonList();
+        db.from("Person").select("Age > ?", 26).columns("Id", "Age").orderBy("Age").query(personList);
+
+        assertEquals(4, personList.size());
+        for(Person person : personList){
+            assertTrue(person.getId() > 0);
+            assertNull(person.getName());
+        }
+        assertEquals(28, personList.get(0).getAge());
+        assertEquals(40, personList.get(3).getAge());
+    }
+
+    public void testSelectEntityList_Refresh(){
+        PersonList personList = new PersonList();
+        db.from("Person").select().query(personList);
+        Person john = personList.get(0);
+        john.setAge(99);
+
+        // same list, same entities, values reloaded
+        db.from("Person").select().query(personList);
+        assertEquals(6, personList.size());
+        assertSame(john, personList.get(0));
+        assertEquals(23, john.getAge());
+    }
+
+    public void testSelectEntityList_AppendOnly(){
+        PersonList personList = new PersonList();
+        Cursor cursor = db.from("Person").select().query();
+        EntityUtils.mapEntityListFromCursor(db.from("Person"), personList, cursor, true);
+        cursor.close();
+        assertEquals(6, personList.size());
+
+        cursor = db.from("Person").select().query();
+        EntityUtils.mapEntityListFromCursor(db.from("Person"), personList, cursor, true);
+        cursor.close();
+        assertEquals(12, personList.size());
+        assertEquals(personList.get(0).getId(), personList.get(6).getId());
+    }
+
+    public void testSelectLazyEntityList(){
+        ILazyEntityList<Person> personList = db.from("Person").select().orderBy("Id").queryLazy(new PersonList(), 2);
+        try{
+            assertEquals(6, personList.size());
+            assertEquals("John", personList.get(0).getName());
+            assertEquals("Montolivo", personList.get(5).getName());
+
+            int count = 0;
+            for(Person person : personList){
+                assertTrue(person.getId() > 0);
+                count++;
+            }
+            assertEquals(6, count);
+
+            // kept in the window
+            Person pirlo = personList.get(4);
+            assertSame(pirlo, personList.get(4));
+            assertEquals("Pirlo", pirlo.getName());
+
+            // recycled
+            personList.get(0);
+            personList.get(1);
+            personList.get(2);
+            assertEquals("Messi", pirlo.getName());
+            assertEquals("Pirlo", personList.get(4).getName());
+        }
+        finally {
+            personList.close();
+        }
+
+        assertTrue(personList.isClosed());
+        try{
+            personList.get(0);
+            fail("Should throw IllegalStateException");
+        }
+        catch (IllegalStateException e){
+            assertTrue(true);
+        }
+    }
+
+    public void testSelectEntitySequence(){
+        final Person person = new Person();
+        final int[] ages = {0, 0};
+        db.from("Person").select().orderBy("Id").query(person, new ISequence<Person>() {
+            @Override
+            public boolean next(Person sequence) {
+                assertSame(person, sequence);
+                ages[0] += sequence.getAge();
+                ages[1]++;
+                // stop at Kaka
+                return !sequence.getName().equals("Kaka");
+            }
+        });
+
+        assertEquals(4, ages[1]);
+        assertEquals(23 + 40 + 25 + 30, ages[0]);
+        assertEquals("Kaka", person.getName());
+
+        final int[] count = {0};
+        db.from("Person").select().orderBy("Id").paging(4).query(new Person(), new ISequence<Person>() {
+            @Override
+            public boolean next(Person sequence) {
+                count[0]++;
+                return true;
+            }
+        });
+        assertEquals(4, count[0]);
+    }
+
     public void testBulkUpdate(){
         PersonList personList = new PersonList();
         db.from("Person").select().query(personList);
@@ -77,6 +194,30 @@ public class EntityListTest extends AndroidTestCase{
         assertTrue(personList.get(2).getName().equals("This is Number 3"));
     }
 
+    public void testBulkUpdate_Columns(){
+        PersonList personList = new PersonList();
+        db.from("Person").select("Name IN (?,?)", "John", "Messi").orderBy("Name").query(personList);
+
+        // someone else changes the age of messi
+        db.from("Person").update("Name = ?", "Messi").val("Age", 99);
+
+        personList.get(0).setAge(1000); // john
+        personList.get(1).setName("Lionel Messi");
+
+        int[] counts = db.from("Person").update(personList, new ITable.ColumnSelector<Person>() {
+            @Override
+            public String[] getColumns(Person person) {
+                return person.getName().equals("Lionel Messi") ? new String[]{ "Name" } : null;
+            }
+        }).query();
+
+        assertEquals(2, counts.length);
+        assertEquals(1, counts[0]);
+        assertEquals(1, counts[1]);
+        assertTrue(db.from("Person").has("Name = ? AND Age = ?", "John", 1000));
+        assertTrue(db.from("Person").has("Name = ? AND Age = ?", "Lionel Messi", 99));
+    }
+
     public void testBulkUpdate_Error_ShouldRollback(){
         PersonList personList = new PersonList();
         db.from("Person").select().query(personList);
@@ -114,6 +255,106 @@ public class EntityListTest extends AndroidTestCase{
         assertTrue(personList.get(personList.size() - 1).getName().equals("Person8"));
     }
 
+    public void testBulkInsert_Chunks(){
+        PersonList personList = new PersonList();
+        for(int i = 0; i < 5; i++){
+            personList.add(new Person("Chunk" + i, i, null));
+        }
+
+        assertEquals(5L, (long) db.from("Person").insert(personList, 2).query());
+        assertEquals(5, db.from("Person").count("Name LIKE ?", "Chunk%"));
+        for(int i = 0; i < 5; i++){
+            assertEquals("Chunk" + i, db.from("Person").select(personList.get(i).getId()).query("Name"));
+        }
+
+        try{
+            db.from("Person").insert(personList, 0);
+            fail("Should throw IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e){
+            assertTrue(true);
+        }
+    }
+
+    public void testUpsert(){
+        PersonList personList = new PersonList();
+        db.from("Person").select("Name = ?", "John").query(personList);
+        personList.get(0).setAge(99);
+        personList.add(new Person("Zidane", 42, null));
+
+        assertEquals(2, (int) db.from("Person").upsert(personList).query());
+        assertEquals(7, db.from("Person").count());
+        assertTrue(personList.get(1).getId() > 0);
+        assertTrue(db.from("Person").has("Name = ? AND Age = ?", "John", 99));
+        assertTrue(db.from("Person").has("Name = ? AND Age = ?", "Zidane", 42));
+
+        // a row that has been deleted is inserted back with its id
+        Person zidane = personList.get(1);
+        db.from("Person").delete(zidane.getId());
+        zidane.setAge(43);
+        assertEquals(zidane.getId(), (long) db.from("Person").upsert(zidane).query());
+        assertEquals(43L, db.from("Person").select(zidane.getId()).query("Age"));
+    }
+
+    public void testInsertInto_OnConflict(){
+        long johnId = db.from("Person").selectId("Name = ?", "John");
+
+        db.from("Person").insertInto("Id", "Name").onConflict(SQLiteDatabase.CONFLICT_IGNORE).val(johnId, "Not John");
+        assertEquals("John", db.from("Person").select(johnId).query("Name"));
+
+        db.from("Person").insertInto("Id", "Name").onConflict(SQLiteDatabase.CONFLICT_REPLACE).val(johnId, "Not John");
+        assertEquals("Not John", db.from("Person").select(johnId).query("Name"));
+        assertEquals(6, db.from("Person").count());
+
+        try{
+            db.from("Person").insertInto("Name").onConflict(-1);
+            fail("Should throw IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e){
+            assertTrue(true);
+        }
+    }
+
+    public void testInsertInto_Values(){
+        // more rows than a single statement can bind
+        Object[][] rows = new Object[1200][];
+        for(int i = 0; i < rows.length; i++){
+            rows[i] = new Object[]{ "Row" + i, i, null };
+        }
+
+        long[] range = db.from("Person").insertInto("Name", "Age", "Address").values(rows).query();
+        assertEquals(rows.length - 1, range[1] - range[0]);
+        assertEquals(rows.length + 6, db.from("Person").count());
+        assertEquals("Row0", db.from("Person").select(range[0]).query("Name"));
+        assertEquals("Row1199", db.from("Person").select(range[1]).query("Name"));
+
+        try{
+            db.from("Person").insertInto("Name", "Age").values(new Object[]{ "Missing Age" });
+            fail("Should throw IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e){
+            assertTrue(true);
+        }
+    }
+
+    public void testInsertInto_Values_Ignore(){
+        long johnId = db.from("Person").selectId("Name = ?", "John");
+        long[] range = db.from("Person").insertInto("Id", "Name", "Age")
+                .onConflict(SQLiteDatabase.CONFLICT_IGNORE)
+                .values(new Object[]{ johnId, "Not John", 1 }, new Object[]{ null, "Ignore1", 2 })
+                .query();
+        try{
+            // the first row is ignored, its id is unknown
+            assertEquals(-1, range[0]);
+            assertEquals("Ignore1", db.from("Person").select(range[1]).query("Name"));
+            assertTrue(db.from("Person").has("Name = ? AND Id = ?", "John", johnId));
+            assertEquals(7, db.from("Person").count());
+        }
+        finally {
+            db.from("Person").delete("Name = ?", "Ignore1");
+        }
+    }
+
     public void testBulkDelete(){
         PersonList personList = new PersonList();
         db.from("Person").select().query(personList);
@@ -122,4 +363,67 @@ public class EntityListTest extends AndroidTestCase{
         assertTrue(db.from("Person").delete(personList).query() == personList.size());
         assertTrue(db.from("Person").count() == 0);
     }
+
+    public void testBulkDelete_Empty(){
+        int count = db.from("Person").count();
+
+        assertEquals(0, (int) db.from("Person").delete(new PersonList()).query());
+        assertEquals(count, db.from("Person").count());
+    }
+
+    public void testSelectMap(){
+        long johnId = db.from("Person").selectId("Name = ?", "John");
+        long kakaId = db.from("Person").selectId("Name = ?", "Kaka");
+
+        PersonList personList = new PersonList();
+        Map<Long, Person> map = db.from("Person").selectMap(personList, johnId, kakaId, johnId, 9999);
+        assertEquals(2, map.size());
+        assertEquals(2, personList.size());
+        assertEquals("John", map.get(johnId).getName());
+        assertEquals("Kaka", map.get(kakaId).getName());
+        assertFalse(map.containsKey(9999L));
+    }
+
+    public void testLargeIdSet(){
+        PersonList personList = new PersonList();
+        for(int i = 0; i < 2500; i++){
+            personList.add(new Person("Bulk" + i, i, null));
+        }
+        assertTrue(db.from("Person").insert(personList).query() > 0);
+
+        long[] ids = new long[personList.size()];
+        for(int i = 0; i < ids.length; i++){
+            ids[i] = personList.get(i).getId();
+        }
+
+        // more ids than SQLite can bind in a single statement
+        Cursor cursor = db.from("Person").select(ids).columns("Id").query();
+        assertEquals(ids.length, cursor.getCount());
+        cursor.close();
+
+        assertEquals(3, db.from("Person").select(ids).paging(1000).getTotalPage());
+        assertEquals(ids.length, db.from("Person").selectMap(new PersonList(), ids).size());
+
+        // with write-ahead logging the ids are still bound (the result is copied)
+        if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN){
+            SQLiteDatabase sqLiteDb = ((Database) db).getSQLiteDatabase();
+            sqLiteDb.enableWriteAheadLogging();
+            try{
+                cursor = db.from("Person").select(ids).columns("Id").orderBy("Id").query();
+                assertEquals(ids.length, cursor.getCount());
+                assertTrue(cursor.moveToLast());
+                assertEquals(ids[ids.length - 1], cursor.getLong(0));
+                cursor.close();
+            }
+            finally {
+                sqLiteDb.disableWriteAheadLogging();
+            }
+        }
+
+        assertEquals(ids.length, (int) db.from("Person").update(ids).columns("Age").val(1).query());
+        assertEquals(ids.length, db.from("Person").count("Age = ?", 1));
+
+        assertEquals(ids.length, (int) db.from("Person").delete(personList).query());
+        assertEquals(6, db.from("Person").count());
+    }
 }
@@ -3,7 +3,10 @@ package com.bingzer.android.dbv;
 import android.content.Context;
 import android.test.AndroidTestCase;
 
+import com.bingzer.android.dbv.annotations.Column;
 import com.bingzer.android.dbv.queries.InsertInto;
+import com.bingzer.android.dbv.utils.ContentValuesUtils;
+import com.bingzer.android.dbv.utils.MapperUtils;
 
 /**
  * Created by Ricky Tobing on 8/9/13.
@@ -63,6 +66,59 @@ public class EntityTest extends AndroidTestCase {
         assertTrue(db.from("Person").count("Name = ?", "Andrea Pirlo") > 0);
     }
 
+    public void testPrimitiveDelegates(){
+        PrimitivePerson person = new PrimitivePerson();
+        person.name = "Kaka";
+        person.age = 30;
+
+        assertTrue(db.from("Person").insert(person).query() > 0);
+        assertEquals(30, (int) db.from("Person").max("Age", "Name = ?", "Kaka").asInt());
+
+        PrimitivePerson kaka = new PrimitivePerson();
+        db.from("Person").select(person.id).query(kaka);
+        assertEquals(person.id, kaka.id);
+        assertEquals("Kaka", kaka.name);
+        assertEquals(30, kaka.age);
+
+        kaka.age = 31;
+        assertEquals(1, (int) db.from("Person").update(kaka).query());
+        assertTrue(db.from("Person").has("Name = ? AND Age = ?", "Kaka", 31));
+    }
+
+    public void testAnnotatedEntity(){
+        assertNotNull(MapperUtils.getMapper(AnnotatedPerson.class));
+
+        AnnotatedPerson person = new AnnotatedPerson();
+        person.name = "Xavi";
+        person.address = "Doha".getBytes();
+
+        assertTrue(db.from("Person").insert(person).query() > 0);
+        assertTrue(person.getId() > 0);
+
+        AnnotatedPerson xavi = new AnnotatedPerson();
+        db.from("Person").select(person.getId()).query(xavi);
+        assertEquals(person.getId(), xavi.getId());
+        assertEquals("Xavi", xavi.name);
+        assertNull(xavi.age);
+        assertEquals("Doha", new String(xavi.address));
+
+        xavi.age = 36;
+        assertEquals(1, (int) db.from("Person").update(xavi).query());
+        assertTrue(db.from("Person").has("Name = ? AND Age = ?", "Xavi", 36));
+
+        // delegates are still available
+        assertEquals("Xavi", ContentValuesUtils.generateContentValuesFromEntity(db.from("Person"), xavi).getAsString("Name"));
+
+        // subclasses use the mapper of the super class
+        AnnotatedPerson iniesta = new AnnotatedPerson(){};
+        assertSame(MapperUtils.getMapper(AnnotatedPerson.class), MapperUtils.getMapper(iniesta));
+        iniesta.name = "Iniesta";
+        assertTrue(db.from("Person").insert(iniesta).query() > 0);
+        assertTrue(db.from("Person").has("Name = ?", "Iniesta"));
+        // not annotated
+        assertNull(MapperUtils.getMapper(new Person()));
+    }
+
     public void testUpdateEntity(){
         Person person = new Person();
         person.setName("Messi");
@@ -124,5 +180,58 @@ public class EntityTest extends AndroidTestCase {
 
 
 
-}
 
+    static class PrimitivePerson implements IEntity {
+        long id = -1;
+        String name;
+        int age;
+
+        @Override
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public void map(Mapper mapper) {
+            mapper.mapId(new Delegate.TypeId(this) {
+                @Override
+                public void set(Long value) {
+                    id = value;
+                }
+            });
+            mapper.map("Name", new Delegate.TypeString() {
+                @Override
+                public void set(String value) {
+                    name = value;
+                }
+
+                @Override
+                public String get() {
+                    return name;
+                }
+            });
+            mapper.map("Age", new Delegate.PrimitiveInt() {
+                @Override
+                public void setInt(int value) {
+                    age = value;
+                }
+
+                @Override
+                public int getInt() {
+                    return age;
+                }
+            });
+        }
+    }
+
+    static class AnnotatedPerson extends AnnotatedEntity {
+        @Column("Name") String name;
+        @Column("Age") Integer age;
+        @Column("Address") byte[] address;
+
+        @Override
+        public String getTableName() {
+            return "Person";
+        }
+    }
+}
@@ -5,9 +5,12 @@ import android.database.Cursor;
 import android.test.AndroidTestCase;
 
 import com.bingzer.android.dbv.contracts.ColumnSelectable;
+import com.bingzer.android.dbv.queries.Aggregate;
 import com.bingzer.android.dbv.queries.InsertInto;
 import com.bingzer.android.dbv.queries.Paging;
 
+import java.util.List;
+
 /**
  * Created by Ricky Tobing on 8/15/13.
  */
@@ -260,15 +263,8 @@ Teddy       20000.0     Janitor
         assertTrue(cursor.getString(2).equals("Guard"));
 
 
-        try{
-            paging.getTotalPage();
-            // not expected
-            assertTrue(false);
-        }
-        catch (Exception e){
-            // as expected
-            assertTrue(true);
-        }
+        // counted by groups
+        assertEquals(4, paging.getTotalPage());
 
         cursor.close();
     }
@@ -492,15 +488,8 @@ Teddy       20000.0     Janitor  (ADDED 20000) TOTAL = 40000
                 .paging(2);
         assertTrue(paging.getPageNumber() == 0);
 
-        try{
-            paging.getTotalPage();
-            // not expected
-            assertTrue(false);
-        }
-        catch (Exception e){
-            // as expected
-            assertTrue(true);
-        }
+        // counted by groups
+        assertEquals(2, paging.getTotalPage());
 
         // # PAGE 1
         Cursor cursor = paging.query();
@@ -525,4 +514,58 @@ Teddy       20000.0     Janitor  (ADDED 20000) TOTAL = 40000
 
         cursor.close();
     }
+
+    public void testAggregate(){
+        Aggregate.Result result = db.from("company").aggregate("salary")
+                .min().max().avg().sum().count()
+                .query();
+
+        assertEquals(10000, result.min().asInt());
+        assertEquals(85000, result.max().asInt());
+        assertEquals(260000, result.sum().asInt());
+        assertEquals(db.from("company").avg("salary").asDouble(), result.avg().asDouble(), 0.01);
+        assertEquals(7, result.count());
+        assertNull(result.total());
+    }
+
+    public void testAggregate_Where(){
+        Aggregate.Result result = db.from("company").aggregate("age")
+                .max().count()
+                .where("salary > ?", 20000)
+                .query();
+
+        assertEquals(27, result.max().asInt());
+        assertEquals(3, result.count());
+        assertNull(result.min());
+        assertEquals(-1, db.from("company").aggregate("age").min().query().count());
+    }
+
+    public void testAggregate_GroupBy(){
+        List<Aggregate.Result> results = db.from("company").aggregate("salary")
+                .sum().count()
+                .where("age < ?", 30)
+                .groupBy("address")
+                .query();
+
+        assertEquals(5, results.size());
+        for(Aggregate.Result result : results){
+            if("Texas".equals(result.get("address"))){
+                assertEquals(100000, result.sum().asInt());
+                assertEquals(2, result.count());
+            }
+            else {
+                assertEquals(1, result.count());
+            }
+        }
+    }
+
+    public void testAggregate_NoFunction(){
+        try{
+            db.from("company").aggregate("salary").query();
+            fail("Should throw IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e){
+            assertTrue(true);
+        }
+    }
 }
@@ -7,6 +7,7 @@ import android.test.AndroidTestCase;
 import com.bingzer.android.dbv.queries.ISequence;
 import com.bingzer.android.dbv.queries.InsertInto;
 import com.bingzer.android.dbv.queries.Paging;
+import com.bingzer.android.dbv.queries.Select;
 
 import java.util.LinkedList;
 
@@ -286,6 +287,77 @@ public class PaginationTest extends AndroidTestCase {
     }
 
 
+    public void testGetTotalPage_Cached(){
+        Paging paging = db.from("Person").select().orderBy("Id").paging(2);
+        int totalPage = paging.getTotalPage();
+        assertEquals(totalPage, paging.getTotalPage());
+
+        // a write to the table discards the count
+        long id = db.from("Person").insertInto("Name", "Age", "Address").val("T", 23, "Bytes".getBytes()).query();
+        int rowCount = db.from("Person").count();
+        assertEquals((int) Math.ceil(rowCount / 2f), paging.getTotalPage());
+
+        db.from("Person").delete(id);
+        assertEquals(totalPage, paging.getTotalPage());
+    }
+
+    public void testGetTotalPage_Subquery(){
+        Paging paging = db.from("Person").select("JobId IN (SELECT Id FROM Jobs WHERE Position = ?)", "Guard").paging(1);
+        assertEquals(3, paging.getTotalPage());
+
+        // Jobs is written, not Person
+        db.from("Jobs").update(managerId).val("Position", "Guard").query();
+        try{
+            assertEquals(4, paging.getTotalPage());
+        }
+        finally {
+            db.from("Jobs").update(managerId).val("Position", "Manager").query();
+        }
+    }
+
+    public void testSelect_CachedSubquery(){
+        ITable.Cache cache = db.from("Person").getCache();
+        cache.setMaxSize(10);
+        try{
+            Select select = db.from("Person").select("JobId IN (SELECT Id FROM Jobs WHERE Position = ?)", "Guard");
+            Cursor cursor = select.query();
+            assertEquals(3, cursor.getCount());
+            cursor.close();
+            assertEquals(3, db.from("Person").count("JobId IN (SELECT Id FROM Jobs WHERE Position = ?)", "Guard"));
+
+            // Jobs is written, not Person
+            db.from("Jobs").update(managerId).val("Position", "Guard").query();
+            try{
+                cursor = select.query();
+                assertEquals(4, cursor.getCount());
+                cursor.close();
+                assertEquals(4, db.from("Person").count("JobId IN (SELECT Id FROM Jobs WHERE Position = ?)", "Guard"));
+                assertEquals(0, cache.size());
+            }
+            finally {
+                db.from("Jobs").update(managerId).val("Position", "Manager").query();
+            }
+        }
+        finally {
+            cache.setMaxSize(0);
+        }
+    }
+
+    public void testGetEstimatedTotalPage(){
+        Paging paging = db.from("Person").select().paging(2);
+        // not analyzed, counted
+        db.execSql("DROP TABLE IF EXISTS sqlite_stat1");
+        assertEquals(paging.getTotalPage(), paging.getEstimatedTotalPage());
+
+        // analyzed
+        db.execSql("ANALYZE");
+        assertEquals(paging.getTotalPage(), paging.getEstimatedTotalPage());
+
+        // filtered selects are always counted
+        paging = db.from("Person").select("Age > ?", 1000).paging(2);
+        assertEquals(0, paging.getEstimatedTotalPage());
+    }
+
     static class PersonWithJob extends Person {
 
 
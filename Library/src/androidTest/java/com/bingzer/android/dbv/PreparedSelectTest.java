@@ -0,0 +1,102 @@
+package com.bingzer.android.dbv;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.test.AndroidTestCase;
+
+import com.bingzer.android.dbv.queries.ISequence;
+import com.bingzer.android.dbv.queries.InsertInto;
+import com.bingzer.android.dbv.queries.PreparedSelect;
+
+public class PreparedSelectTest extends AndroidTestCase {
+
+    IDatabase db;
+
+    @Override
+    public void setUp(){
+        db = DbQuery.getDatabase("PreparedSelectDb");
+        db.open(1, new SQLiteBuilder() {
+            @Override
+            public Context getContext() {
+                return PreparedSelectTest.this.getContext();
+            }
+
+            @Override
+            public void onModelCreate(IDatabase database, IDatabase.Modeling modeling) {
+                modeling.add("Person")
+                        .addPrimaryKey("Id")
+                        .add("Name", "String")
+                        .add("Age", "Integer")
+                        .addBlob("Address");
+            }
+        });
+
+        db.from("Person").delete();
+
+        InsertInto insert = db.from("Person").insertInto("Name", "Age", "Address");
+        insert.val("John", 23, "Washington DC".getBytes());
+        insert.val("Ronaldo", 40, "Madrid".getBytes());
+        insert.val("Messi", 25, "Barcelona".getBytes());
+    }
+
+    public void testPrepare_Bind(){
+        PreparedSelect select = db.prepare(db.from("Person").select("Name = ?"));
+        assertEquals(1, select.getArgCount());
+
+        Person person = new Person();
+        select.bind("Messi").query(person);
+        assertEquals("Messi", person.getName());
+        assertEquals(25, person.getAge());
+
+        select.bind("Ronaldo").query(person);
+        assertEquals("Ronaldo", person.getName());
+        assertEquals(40, person.getAge());
+    }
+
+    public void testPrepare_DefaultArgs(){
+        PreparedSelect select = db.prepare(db.from("Person").select("Age > ?", 24).orderBy("Age"));
+
+        PersonList list = new PersonList();
+        select.query(list);
+        assertEquals(2, list.size());
+        assertEquals("Messi", list.get(0).getName());
+
+        list.clear();
+        select.bind(30).query(list);
+        assertEquals(1, list.size());
+        assertEquals("Ronaldo", list.get(0).getName());
+    }
+
+    public void testPrepare_Sequence(){
+        PreparedSelect select = db.prepare(db.from("Person").select("Age BETWEEN ? AND ?").columns("Name"));
+
+        final int[] count = {0};
+        select.bind(20, 30).query(new ISequence<Cursor>() {
+            @Override
+            public boolean next(Cursor cursor) {
+                count[0]++;
+                return true;
+            }
+        });
+        assertEquals(2, count[0]);
+
+        assertEquals("Ronaldo", select.bind(31, 50).query("Name"));
+    }
+
+    public void testPrepare_Join(){
+        PreparedSelect select = db.prepare(db.from("Person P").join("Person Q", "P.Id = Q.Id")
+                .select("P.Name = ?").columns("Q.Age"));
+
+        assertEquals(23L, select.bind("John").query(0));
+    }
+
+    public void testPrepare_NotSupported(){
+        try{
+            db.prepare(db.from("Person").select().paging(1));
+            fail("Should throw IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e){
+            assertTrue(true);
+        }
+    }
+}
@@ -19,11 +19,14 @@ package com.bingzer.android.dbv;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.os.Build;
 import android.test.AndroidTestCase;
 
 import com.bingzer.android.dbv.queries.ISequence;
 import com.bingzer.android.dbv.queries.InsertInto;
+import com.bingzer.android.dbv.queries.Paging;
 import com.bingzer.android.dbv.utils.CollectionUtils;
+import com.bingzer.android.dbv.utils.CursorUtils;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -168,6 +171,34 @@ public class TableTest extends AndroidTestCase{
         assertFalse(db.from("Customers").has("Name = ?", "Sanatan"));
     }
 
+    public void testSelectId_NotFound(){
+        assertTrue(db.from("Customers").selectId("Name = ?", "Lionel Messi") > 0);
+        assertEquals(-1, db.from("Customers").selectId("Name = ?", "Sanatan"));
+    }
+
+    public void testFunction_NoRows(){
+        // aggregate of nothing is null
+        assertEquals(0, db.from("Products").max("Price", "Name = ?", "Sanatan").asInt());
+        assertEquals(0d, db.from("Products").avg("Price", "Name = ?", "Sanatan").asDouble());
+        // text column is converted
+        assertEquals(0d, db.from("Products").max("Name").asDouble());
+    }
+
+    public void testFunction_Precision(){
+        ITable products = db.from("Products");
+        products.insertInto("Name", "Price").val("Precise1", 0.1);
+        products.insertInto("Name", "Price").val("Precise2", 0.2);
+        products.insertInto("Name", "Price").val("Precise3", 1234567890.123456789);
+        try{
+            // more than 15 significant digits
+            assertEquals(0.1 + 0.2 + 1234567890.123456789, products.sum("Price", "Name LIKE ?", "Precise%").asDouble(), 1e-6);
+            assertEquals(1234567890.123456789, products.max("Price", "Name LIKE ?", "Precise%").asDouble(), 1e-6);
+        }
+        finally {
+            products.delete("Name LIKE ?", "Precise%");
+        }
+    }
+
     ///////////////////////////////////////////////
     // ----------------- count() ------------------//
     public void testCount(){
@@ -309,6 +340,20 @@ public class TableTest extends AndroidTestCase{
         c.close();
     }
 
+    public void testSelect_WhereClause_TypedArgs(){
+        Cursor c = db.from("Products").select("Price > ? AND Price < ?", 999.5, 1000L).columns("Name").query();
+        assertTrue(c.moveToFirst());
+        assertEquals("Computer", c.getString(0));
+        c.close();
+
+        // same sql, different values
+        c = db.from("Products").select("Price > ? AND Price < ?", 19.5, 20L).columns("Name").query();
+        assertFalse(c.moveToFirst());
+        c.close();
+
+        assertEquals(2, db.from("Products").select("Price <= ?", 10).paging(1).getTotalPage());
+    }
+
     public void testSelect_Top(){
         Cursor c = db.from("Orders")
                 .select(2, "CustomerId = ?", getCustomerId("Christiano Ronaldo")).query();
@@ -526,6 +571,31 @@ public class TableTest extends AndroidTestCase{
         assertTrue(db.from("Products").delete("Name = ?", "Dodol").query() > 0);
     }
 
+    public void testInsert_Update_Delete_Repeated(){
+        ITable products = db.from("Products");
+        long[] ids = new long[50];
+        for(int i = 0; i < ids.length; i++){
+            ids[i] = products.insert(new String[]{"Name", "Price"}, new Object[]{"Dodol" + i, i}).query();
+            assertTrue(ids[i] > 0);
+        }
+
+        for(int i = 0; i < ids.length; i++){
+            ContentValues contentValues = new ContentValues();
+            contentValues.put("Price", i * 2);
+            assertEquals(1, (int) products.update(contentValues, ids[i]).query());
+        }
+        assertEquals(98, products.max("Price", "Name LIKE ?", "Dodol%").asInt());
+
+        // re-open: statements must be re-compiled against the new connection
+        db.close();
+        setUp();
+
+        for(long id : ids){
+            assertEquals(1, (int) db.from("Products").delete(id).query());
+        }
+        assertFalse(db.from("Products").has("Name LIKE ?", "Dodol%"));
+    }
+
     ///////////////////////////////////////////////
     ///////////////////////////////////////////////
     // ------------------ Update ----------------//
@@ -1258,6 +1328,356 @@ public class TableTest extends AndroidTestCase{
         assertEquals(average, "200.0");
     }
 
+    public void testCache(){
+        // result cache is only available on honeycomb and up
+        if(Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB) return;
+
+        ITable.Cache cache = customerTable.getCache();
+        cache.setMaxSize(10);
+        try{
+            int count = customerTable.count();
+            assertEquals(count, customerTable.count());
+            assertEquals(1, cache.getMissCount());
+            assertEquals(1, cache.getHitCount());
+
+            Cursor cursor = customerTable.select("Name = ?", "Kaka").query();
+            cursor.close();
+            cursor = customerTable.select("Name = ?", "Kaka").query();
+            assertTrue(cursor.moveToNext());
+            assertEquals("Kaka", cursor.getString(cursor.getColumnIndex("Name")));
+            cursor.close();
+            assertEquals(2, cache.getHitCount());
+            assertEquals(2, cache.size());
+
+            // writes invalidate
+            long id = customerTable.insert("Name", "Cached Customer").query();
+            assertEquals(0, cache.size());
+            assertEquals(count + 1, customerTable.count());
+
+            customerTable.delete(id);
+            assertEquals(count, customerTable.count());
+
+            db.invalidateCache();
+            assertEquals(0, cache.size());
+        }
+        finally {
+            cache.setMaxSize(0);
+        }
+        assertEquals(0, cache.size());
+    }
+
+    public void testQueryColumns(){
+        // Cursor.getType() is only available on honeycomb and up
+        if(Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB) return;
+
+        ColumnarResult result = db.from("Products").select().columns("Id", "Name", "Price").orderBy("Price").queryColumns();
+        assertEquals(10, result.getRowCount());
+        assertEquals(3, result.getColumnCount());
+        assertEquals(ColumnarResult.TYPE_LONG, result.getType(0));
+        assertEquals(ColumnarResult.TYPE_STRING, result.getType(result.getColumnIndex("Name")));
+        assertEquals(ColumnarResult.TYPE_DOUBLE, result.getType(2));
+        assertEquals("Candy", result.getStrings(1)[0]);
+        assertEquals(20000, result.getDoubles(2)[9], 0.1);
+
+        // arrays are reused
+        double[] prices = result.getDoubles(2);
+        db.from("Products").select("Price > ?", 100).columns("Id", "Name", "Price").queryColumns(result);
+        assertEquals(5, result.getRowCount());
+        assertSame(prices, result.getDoubles(2));
+
+        db.from("Customers").select().columns("Name", "Address").orderBy("Name").queryColumns(result);
+        assertEquals(7, result.getRowCount());
+        assertEquals("Andrea Pirlo", result.getStrings(0)[0]);
+        assertTrue(result.isNull(1, 5));
+        assertFalse(result.isNull(1, 4));
+        assertNull(result.getStrings(1)[5]);
+
+        try{
+            result.getLongs(1);
+            fail("Should throw IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e){
+            assertTrue(true);
+        }
+    }
+
+    public void testQueryColumns_MixedTypes(){
+        if(Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB) return;
+
+        // numbers first, then text: the column is read as strings
+        ColumnarResult result = db.from("Products").select()
+                .columns("Id", "CASE WHEN Price > 100 THEN Name ELSE Price END AS Mixed")
+                .orderBy("Price").queryColumns();
+        assertEquals(10, result.getRowCount());
+        assertEquals(ColumnarResult.TYPE_STRING, result.getType(1));
+        String[] values = result.getStrings(1);
+        assertEquals(1, Double.parseDouble(values[0]), 0.1);
+        assertEquals(100, Double.parseDouble(values[4]), 0.1);
+        assertEquals("Cellphone", values[5]);
+        assertEquals("Car", values[9]);
+
+        // columns and arrays are kept
+        result.clear();
+        assertEquals(0, result.getRowCount());
+        assertEquals(2, result.getColumnCount());
+        db.from("Products").select()
+                .columns("Id", "CASE WHEN Price > 100 THEN Name ELSE Price END AS Mixed")
+                .orderBy("Price").queryColumns(result);
+        assertSame(values, result.getStrings(1));
+    }
+
+    public void testWindowSize(){
+        Cursor cursor = db.from("Customers").select().windowSize(64 * 1024).query();
+        try{
+            assertEquals(7, cursor.getCount());
+            assertEquals(db.from("Customers").getColumnCount(), cursor.getColumnCount());
+            int count = 0;
+            while(cursor.moveToNext()){
+                assertTrue(db.from("Customers").has("Name = ?", cursor.getString(cursor.getColumnIndex("Name"))));
+                count++;
+            }
+            assertEquals(7, count);
+            assertTrue(CursorUtils.getWindowFillCount(cursor) > 0);
+        }
+        finally {
+            cursor.close();
+        }
+
+        // from config
+        db.getConfig().setCursorWindowSize(64 * 1024);
+        cursor = db.from("Products").select("Price > ?", 0).query();
+        try{
+            assertEquals(10, cursor.getCount());
+        }
+        finally {
+            cursor.close();
+            db.getConfig().setCursorWindowSize(0);
+        }
+
+        try{
+            db.from("Customers").select().windowSize(-1);
+            fail("Should throw IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e){
+            assertTrue(true);
+        }
+    }
+
+    public void testWindowSize_Aggregate(){
+        // a single row, not fetched in chunks
+        Cursor cursor = db.from("Products").select().columns("MAX(Price)").windowSize(64 * 1024).query();
+        try{
+            assertEquals(1, cursor.getCount());
+            assertTrue(cursor.moveToNext());
+            assertEquals(20000, cursor.getDouble(0), 0.1);
+            assertFalse(cursor.moveToNext());
+        }
+        finally {
+            cursor.close();
+        }
+    }
+
+    public void testWindowSize_WithoutRowId(){
+        // WITHOUT ROWID needs SQLite 3.8.2
+        if(Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) return;
+
+        db.execSql("CREATE TABLE IF NOT EXISTS KeyValues (Key TEXT PRIMARY KEY, Value TEXT) WITHOUT ROWID");
+        db.execSql("DELETE FROM KeyValues");
+        InsertInto insert = db.from("KeyValues").insertInto("Key", "Value");
+        insert.val("b", "2");
+        insert.val("a", "1");
+
+        // can't be fetched in chunks (no rowid)
+        Cursor cursor = db.from("KeyValues").select().windowSize(64 * 1024).query();
+        try{
+            assertEquals(2, cursor.getCount());
+            assertEquals(2, cursor.getColumnCount());
+            int count = 0;
+            while(cursor.moveToNext()){
+                count++;
+            }
+            assertEquals(2, count);
+        }
+        finally {
+            cursor.close();
+        }
+    }
+
+    public void testStream(){
+        RowStream rows = db.from("Customers").select().columns("Name").stream();
+        int count = 0;
+        for(Cursor cursor : rows){
+            assertNotNull(cursor.getString(0));
+            count++;
+        }
+        assertEquals(7, count);
+        assertTrue(rows.isClosed());
+
+        try{
+            rows.iterator();
+            fail("Should throw IllegalStateException");
+        }
+        catch (IllegalStateException e){
+            assertTrue(true);
+        }
+
+        // early exit
+        rows = db.from("Customers").select().columns("Name").orderBy("Name").stream();
+        try{
+            for(Cursor cursor : rows){
+                assertEquals("Andrea Pirlo", cursor.getString(0));
+                break;
+            }
+            assertFalse(rows.isClosed());
+        }
+        finally {
+            rows.close();
+        }
+        assertTrue(rows.isClosed());
+    }
+
+    public void testStream_Prefetch(){
+        // prefetch reads values by their types (Cursor.getType())
+        if(Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB) return;
+
+        RowStream rows = db.from("Products").select().columns("Name", "Price").orderBy("Price").stream(3);
+        double total = 0;
+        int count = 0;
+        for(Cursor cursor : rows){
+            if(count == 0) assertEquals("Candy", cursor.getString(0));
+            total += cursor.getDouble(1);
+            count++;
+        }
+        assertEquals(10, count);
+        assertEquals(db.from("Products").sum("Price").asDouble(), total, 0.1);
+        assertTrue(rows.isClosed());
+
+        // early exit
+        rows = db.from("Products").select().stream(2);
+        try{
+            assertTrue(rows.iterator().hasNext());
+        }
+        finally {
+            rows.close();
+        }
+    }
+
+    public void testStream_PrefetchInTransaction(){
+        if(Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB) return;
+
+        final int[] count = new int[]{ -1 };
+        boolean committed = db.begin(new IDatabase.Batch() {
+            @Override
+            public void exec(IDatabase database) {
+                database.from("Products").insertInto("Name", "Price").val("Uncommitted", 3);
+                count[0] = 0;
+                for(Cursor cursor : database.from("Products").select().stream(2)){
+                    count[0]++;
+                }
+                database.from("Products").delete("Name = ?", "Uncommitted");
+            }
+        }).execute();
+
+        assertTrue(committed);
+        // sees the uncommitted row
+        assertEquals(11, count[0]);
+    }
+
+    public void testQueryAs(){
+        List<String> names = db.from("Customers").select("Country = ?", "Italy").orderBy("Name")
+                .queryAs(new RowReader<String>("Name", "City") {
+                    @Override
+                    public String read(Cursor cursor, int[] columns) {
+                        return cursor.getString(columns[0]) + " - " + cursor.getString(columns[1]);
+                    }
+                });
+        assertEquals(3, names.size());
+        assertEquals("Andrea Pirlo - Turin", names.get(0));
+        assertEquals("Mario Baloteli - Milan", names.get(2));
+
+        // all columns
+        List<Integer> counts = db.from("Products").select().columns("Id", "Name").queryAs(new RowReader<Integer>() {
+            @Override
+            public Integer read(Cursor cursor, int[] columns) {
+                return columns.length;
+            }
+        });
+        assertEquals(10, counts.size());
+        assertEquals(2, (int) counts.get(0));
+
+        try{
+            db.from("Customers").select().queryAs(new RowReader<String>("Nothing") {
+                @Override
+                public String read(Cursor cursor, int[] columns) {
+                    return null;
+                }
+            });
+            fail("Should throw IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e){
+            assertTrue(true);
+        }
+    }
+
+    public void testKeysetPaging(){
+        Paging paging = db.from("Products").select().columns("Name").orderBy("Price").keysetPaging(3);
+        List<String> names = new LinkedList<String>();
+        for(int i = 0; i < 4; i++){
+            Cursor cursor = paging.query();
+            while(cursor.moveToNext()){
+                names.add(cursor.getString(0));
+            }
+            cursor.close();
+            paging.next();
+        }
+        assertEquals(10, names.size());
+        assertEquals("Candy", names.get(0));
+        assertEquals("Sunglasses", names.get(3));
+        assertEquals("Car", names.get(9));
+
+        // previous page is seeked too
+        Cursor cursor = paging.query(2);
+        assertEquals(3, cursor.getCount());
+        assertTrue(cursor.moveToFirst());
+        assertEquals("Monitor", cursor.getString(0));
+        cursor.close();
+
+        // random jump (OFFSET) and then next page
+        paging = db.from("Products").select("Price > ?", 10).orderBy("Price DESC").keysetPaging(2);
+        cursor = paging.query(1);
+        assertTrue(cursor.moveToFirst());
+        assertEquals("Computer", cursor.getString(cursor.getColumnIndex("Name")));
+        cursor.close();
+        cursor = paging.next().query();
+        assertEquals(2, cursor.getCount());
+        assertTrue(cursor.moveToFirst());
+        assertEquals("Cellphone", cursor.getString(cursor.getColumnIndex("Name")));
+        cursor.close();
+        assertEquals(4, paging.getTotalPage());
+    }
+
+    public void testKeysetPaging_NullableDescKey(){
+        // "Null Player" has no city, nulls sort last in DESC
+        Paging offsetPaging = db.from("Customers").select().columns("Name").orderBy("City DESC", "Id").paging(2);
+        Paging keysetPaging = db.from("Customers").select().columns("Name").orderBy("City DESC").keysetPaging(2);
+        List<String> expected = new LinkedList<String>();
+        List<String> names = new LinkedList<String>();
+        for(int i = 0; i < 4; i++){
+            Cursor cursor = offsetPaging.query(i);
+            while(cursor.moveToNext()) expected.add(cursor.getString(0));
+            cursor.close();
+
+            cursor = keysetPaging.query();
+            while(cursor.moveToNext()) names.add(cursor.getString(0));
+            cursor.close();
+            keysetPaging.next();
+        }
+
+        assertEquals(7, expected.size());
+        assertEquals(expected, names);
+        assertEquals("Null Player", names.get(6));
+    }
+
     public void testDrop(){
         if(db.from("TableToDrop") != null){
             assertTrue(db.from("TableToDrop").drop().query());
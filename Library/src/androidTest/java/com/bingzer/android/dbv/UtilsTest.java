@@ -46,6 +46,26 @@ public class UtilsTest extends AndroidTestCase{
 
     }
 
+    public void testCountPlaceholders(){
+        assertEquals(0, Utils.countPlaceholders(null));
+        assertEquals(0, Utils.countPlaceholders("Name = 'What?'"));
+        assertEquals(2, Utils.countPlaceholders("Name = ? AND Age = ?"));
+        assertEquals(1, Utils.countPlaceholders("Name = 'I''m fine. You?' AND Age = ?"));
+    }
+
+    public void testNormalizeArgs(){
+        assertEquals(0, Utils.normalizeArgs("Name = 'John'", (Object) null).length);
+
+        Object[] args = Utils.normalizeArgs("Name = ? AND Age = ?", "John");
+        assertEquals(2, args.length);
+        assertEquals("John", args[0]);
+        assertNull(args[1]);
+
+        args = Utils.normalizeArgs("Name = ?", "John", 23);
+        assertEquals(1, args.length);
+        assertEquals("John", args[0]);
+    }
+
     ////////////////////////////////////////////////////////////////////////////////
 
     public void testArguments(){
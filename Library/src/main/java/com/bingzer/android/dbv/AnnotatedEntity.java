@@ -0,0 +1,68 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv;
+
+import com.bingzer.android.dbv.utils.MapperUtils;
+
+/**
+ * {@link BaseEntity} mapped by its {@link com.bingzer.android.dbv.annotations.Column} fields
+ * (requires the <code>MapperCompiler</code> annotation processor).
+ * <pre><code>
+ * public class Person extends AnnotatedEntity {
+ *     &#64;Column("Name") String name;
+ *     &#64;Column("Age") int age;
+ *     ...
+ * }
+ * </code></pre>
+ *
+ * @see com.bingzer.android.dbv.IEntityMapper
+ */
+public abstract class AnnotatedEntity extends BaseEntity {
+
+    /**
+     * Creates Entity with 'local' environment
+     * @see com.bingzer.android.dbv.IEnvironment
+     */
+    protected AnnotatedEntity(){
+        super();
+    }
+
+    /**
+     * Creates entity
+     * @see com.bingzer.android.dbv.IEnvironment
+     * @param environment the environment that this entity should live
+     */
+    protected AnnotatedEntity(IEnvironment environment){
+        super(environment);
+    }
+
+    /////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Maps the id and every {@link com.bingzer.android.dbv.annotations.Column} field
+     * using the generated {@link com.bingzer.android.dbv.IEntityMapper}.
+     * @throws IllegalArgumentException if there's no generated mapper
+     */
+    @Override
+    public void map(Mapper mapper){
+        IEntityMapper<IEntity> entityMapper = MapperUtils.getMapper(this);
+        if(entityMapper == null)
+            throw new IllegalArgumentException("No generated mapper found for " + getClass().getName());
+
+        mapId(mapper);
+        entityMapper.map(this, mapper);
+    }
+}
@@ -19,14 +19,33 @@ import android.database.Cursor;
 
 import com.bingzer.android.dbv.utils.EntityUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Represents the very basic of ORM entity.
  * You should use this or implement IBaseEntity yourself.
+ * <p>
+ * To annotate fields with {@link com.bingzer.android.dbv.annotations.Column}
+ * instead of implementing {@link #map(com.bingzer.android.dbv.IEntity.Mapper)},
+ * extend {@link com.bingzer.android.dbv.AnnotatedEntity}.
+ * <p>
+ * Changes are tracked: the values are remembered when the entity is loaded
+ * (any <code>load()</code>) or saved. When saved again, only the columns that
+ * have changed since are updated. Entities mapped by other means (i.e: from an
+ * {@link com.bingzer.android.dbv.IEntityList}) update every column on their first <code>save()</code>.
  */
 public abstract class BaseEntity implements IBaseEntity {
 
     protected long id = -1;
     protected final IEnvironment environment;
+    // column values when last loaded or saved, null if unknown
+    private Map<String, Object> snapshot;
 
     //////////////////////////////////////////////////////////////////////////////////////////
 
@@ -86,20 +105,68 @@ public abstract class BaseEntity implements IBaseEntity {
      */
     @Override
     public final boolean save(){
+        final ITable table = environment.getDatabase().from(getTableName());
         if(id <= 0) {
             onBeforeInsert();
-            id = environment.getDatabase().from(getTableName()).insert(this).query();
+            id = table.insert(this).query();
+            remember(id > 0 ? takeSnapshot(mapValues(table)) : null);
             onAfterInsert();
             return id > 0;
         }
         else {
             onBeforeUpdate();
-            int numUpdated = environment.getDatabase().from(getTableName()).update(this).query();
+            final Delegate.Mapper mapper = mapValues(table);
+            int numUpdated;
+            if(snapshot == null){
+                numUpdated = table.update(this).query();
+            }
+            else {
+                String[] changedColumns = getChangedColumns(mapper, table.getPrimaryKeyColumn());
+                // nothing to write
+                numUpdated = changedColumns.length == 0 ? 1 : table.update(this, changedColumns).query();
+            }
+            remember(numUpdated == 1 ? takeSnapshot(mapper) : null);
             onAfterUpdate();
             return numUpdated == 1;
         }
     }
 
+    /**
+     * Saves every entity.
+     * New entities (id less than or equals to 0) are inserted one by one (see {@link #save()}).
+     * The others are updated in bulk, in a single transaction per table: only the columns
+     * that have changed are updated and entities without any change are not written at all.
+     * @param entities the entities to save
+     * @return true if every entity is saved, false otherwise
+     * @see com.bingzer.android.dbv.ITable#update(Iterable, com.bingzer.android.dbv.ITable.ColumnSelector)
+     */
+    public static boolean saveAll(Iterable<? extends BaseEntity> entities){
+        boolean success = true;
+
+        // updates are grouped by their tables
+        final Map<ITable, List<BaseEntity>> updates = new LinkedHashMap<ITable, List<BaseEntity>>();
+        for(BaseEntity entity : entities){
+            if(entity.id <= 0) {
+                success &= entity.save();
+                continue;
+            }
+
+            ITable table = entity.environment.getDatabase().from(entity.getTableName());
+            List<BaseEntity> list = updates.get(table);
+            if(list == null){
+                list = new ArrayList<BaseEntity>();
+                updates.put(table, list);
+            }
+            list.add(entity);
+        }
+
+        for(Map.Entry<ITable, List<BaseEntity>> entry : updates.entrySet()){
+            success &= update(entry.getKey(), entry.getValue());
+        }
+
+        return success;
+    }
+
     /**
      * Delete itself from the database.
      * If successful, {@code getId()} will be automatically set to -1.
@@ -109,6 +176,7 @@ public abstract class BaseEntity implements IBaseEntity {
         if(id > 0){
             onBeforeDelete();
             int numDeleted = environment.getDatabase().from(getTableName()).delete(this).query();
+            remember(null);
             id = -1;
             onAfterDelete();
 
@@ -120,22 +188,23 @@ public abstract class BaseEntity implements IBaseEntity {
 
     /**
      * Reload data from the database. Useful if other code has make some changes
-     * and you need to rehydrate the data - fresh - from the db
+     * and you need to rehydrate the data - fresh - from the db.
+     * The identity map (if enabled) is not consulted, but it is refreshed.
      */
     @Override
     public final boolean load(){
-        return load(id);
+        return load(id, false);
     }
 
     /**
      * Load by Id.
+     * If the identity map is enabled (see {@link IEnvironment#getIdentityMap()})
+     * and the row has already been loaded or saved with every column this entity maps,
+     * the values are taken from the identity map without querying the database.
      */
     @Override
     public final boolean load(long id){
-        onBeforeLoad();
-        environment.getDatabase().from(getTableName()).select(id).query(this);
-        onAfterLoad();
-        return this.id == id;
+        return load(id, true);
     }
 
     /**
@@ -157,6 +226,18 @@ public abstract class BaseEntity implements IBaseEntity {
             onBeforeLoad();
             ITable table = environment.getDatabase().from(getTableName());
             EntityUtils.mapEntityFromCursor(table, this, cursor);
+
+            // columns the cursor doesn't have are unknown, a partial row isn't remembered in the identity map
+            Map<String, Object> values = takeSnapshot(mapValues(table));
+            boolean complete = true;
+            for(Iterator<String> iterator = values.keySet().iterator(); iterator.hasNext(); ){
+                if(cursor.getColumnIndex(iterator.next()) < 0){
+                    iterator.remove();
+                    complete = false;
+                }
+            }
+            if(complete) remember(values);
+            else snapshot = values;
             onAfterLoad();
             return true;
         }
@@ -236,4 +317,162 @@ public abstract class BaseEntity implements IBaseEntity {
         });
     }
 
+    /////////////////////////////////////////////////////////////////////////////////////////
+
+    private boolean load(long id, boolean useIdentityMap){
+        onBeforeLoad();
+
+        ITable table = environment.getDatabase().from(getTableName());
+        IdentityMap identityMap = environment.getIdentityMap();
+        Map<String, Object> values = useIdentityMap && identityMap != null ? identityMap.get(getTableName(), id) : null;
+        // values remembered by another entity class may not have every column of this one
+        if(values != null && !values.keySet().containsAll(mapValues(table).keySet())) values = null;
+        if(values != null){
+            this.id = id;
+            applyValues(values);
+            snapshot = values;
+        }
+        else {
+            table.select(id).query(this);
+            if(this.id == id) remember(takeSnapshot(mapValues(table)));
+            else snapshot = null;
+        }
+
+        onAfterLoad();
+        return this.id == id;
+    }
+
+    /**
+     * Updates the changed columns of every entity (all columns if unknown) in bulk
+     */
+    private static boolean update(ITable table, List<BaseEntity> entities){
+        final Delegate.Mapper[] mappers = new Delegate.Mapper[entities.size()];
+        final List<BaseEntity> changed = new ArrayList<BaseEntity>(entities.size());
+        final List<String[]> changedColumns = new ArrayList<String[]>(entities.size());
+
+        for(int i = 0; i < mappers.length; i++){
+            BaseEntity entity = entities.get(i);
+            entity.onBeforeUpdate();
+            mappers[i] = entity.mapValues(table);
+
+            String[] columns = entity.snapshot == null ? null : entity.getChangedColumns(mappers[i], table.getPrimaryKeyColumn());
+            // nothing to write
+            if(columns != null && columns.length == 0) continue;
+
+            changed.add(entity);
+            changedColumns.add(columns);
+        }
+
+        int[] counts = null;
+        if(changed.size() > 0){
+            // columns are asked in the same order
+            final Iterator<String[]> iterator = changedColumns.iterator();
+            counts = table.update(changed, new ITable.ColumnSelector<BaseEntity>() {
+                @Override
+                public String[] getColumns(BaseEntity entity) {
+                    return iterator.next();
+                }
+            }).query();
+        }
+
+        boolean success = true;
+        int position = 0;
+        for(int i = 0; i < mappers.length; i++){
+            BaseEntity entity = entities.get(i);
+            int numUpdated = 1;
+            if(position < changed.size() && changed.get(position) == entity){
+                numUpdated = counts == null ? 0 : counts[position];
+                position++;
+            }
+
+            entity.remember(numUpdated == 1 ? takeSnapshot(mappers[i]) : null);
+            entity.onAfterUpdate();
+            success &= numUpdated == 1;
+        }
+
+        return success;
+    }
+
+    /**
+     * Remembers the values (null if unknown) in the snapshot and the identity map
+     */
+    private void remember(Map<String, Object> values){
+        snapshot = values;
+
+        IdentityMap identityMap = environment.getIdentityMap();
+        if(identityMap != null && id > 0){
+            if(values == null) identityMap.remove(getTableName(), id);
+            else identityMap.put(getTableName(), id, values);
+        }
+    }
+
+    /**
+     * Sets the values (except the id) using delegates
+     */
+    private void applyValues(final Map<String, Object> values){
+        map(new Mapper() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public void map(String column, Delegate delegate) {
+                if(!values.containsKey(column)) return;
+
+                Object value = values.get(column);
+                // values are shared, arrays can be changed in place
+                if(value instanceof byte[]) value = ((byte[]) value).clone();
+                delegate.set(value);
+            }
+
+            @Override
+            public void mapId(Delegate<Long> delegate) {
+                // already set
+            }
+
+            @Override
+            public void clear() {
+                // nothing
+            }
+
+            @Override
+            public Delegate get(String column) {
+                return null;
+            }
+        });
+    }
+
+    private Delegate.Mapper mapValues(ITable table){
+        Delegate.Mapper mapper = new Delegate.Mapper(table);
+        map(mapper);
+        return mapper;
+    }
+
+    private static Map<String, Object> takeSnapshot(Delegate.Mapper mapper){
+        Map<String, Object> values = new HashMap<String, Object>(mapper.size() * 2);
+        for(Map.Entry<String, Delegate> entry : mapper.entrySet()){
+            Object value = entry.getValue().get();
+            // arrays can be changed in place
+            if(value instanceof byte[]) value = ((byte[]) value).clone();
+            values.put(entry.getKey(), value);
+        }
+        return values;
+    }
+
+    private String[] getChangedColumns(Delegate.Mapper mapper, String primaryKeyColumn){
+        List<String> columns = new ArrayList<String>();
+        for(Map.Entry<String, Delegate> entry : mapper.entrySet()){
+            String column = entry.getKey();
+            if(column.equals(primaryKeyColumn)) continue;
+
+            Object value = entry.getValue().get();
+            if(!snapshot.containsKey(column) || !isEqual(snapshot.get(column), value))
+                columns.add(column);
+        }
+        return columns.toArray(new String[columns.size()]);
+    }
+
+    private static boolean isEqual(Object oldValue, Object value){
+        if(oldValue instanceof byte[] && value instanceof byte[])
+            return Arrays.equals((byte[]) oldValue, (byte[]) value);
+        return oldValue == null ? value == null : oldValue.equals(value);
+    }
+
 }
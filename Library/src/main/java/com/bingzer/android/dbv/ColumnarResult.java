@@ -0,0 +1,362 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv;
+
+import android.annotation.TargetApi;
+import android.database.Cursor;
+import android.os.Build;
+
+import java.util.Arrays;
+
+/**
+ * Query result stored by columns, in primitive arrays.
+ * Every column is read into a single array of its type (taken from the first non-null value):
+ * <code>long[]</code>, <code>double[]</code>, <code>String[]</code> or <code>byte[][]</code>.
+ * Nulls are tracked separately (see {@link #isNull(int, int)}). No object
+ * is created per value (except for strings and blobs).
+ * <p>
+ * The arrays grow as needed and may be longer than {@link #getRowCount()}.
+ * Pass the same result back to a query to reuse its arrays.
+ * <pre><code>
+ * ColumnarResult result = db.from("Orders").select().columns("Date", "Total").queryColumns();
+ * long[] dates = result.getLongs(0);
+ * double[] totals = result.getDoubles(1);
+ * for(int i = 0; i &lt; result.getRowCount(); i++){
+ *     ...
+ * }
+ * </code></pre>
+ * <p>
+ * <b>Note:</b> the result is not thread-safe.
+ *
+ * @see com.bingzer.android.dbv.contracts.ColumnarSelectable
+ */
+public class ColumnarResult {
+
+    /** Every value of the column is null */
+    public static final int TYPE_NULL = 0;
+    /** Column is read as <code>long[]</code> */
+    public static final int TYPE_LONG = 1;
+    /** Column is read as <code>double[]</code> */
+    public static final int TYPE_DOUBLE = 2;
+    /** Column is read as <code>String[]</code> */
+    public static final int TYPE_STRING = 3;
+    /** Column is read as <code>byte[][]</code> */
+    public static final int TYPE_BLOB = 4;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private String[] columnNames = new String[0];
+    private int[] types = new int[0];
+    private long[][] longs = new long[0][];
+    private double[][] doubles = new double[0][];
+    private String[][] strings = new String[0][];
+    private byte[][][] blobs = new byte[0][][];
+    // one bit per row
+    private int[][] nulls = new int[0][];
+    private int rowCount;
+    private int capacity;
+
+    /**
+     * Reads every (remaining) row of the cursor. The previous content is cleared
+     * but its arrays are reused. The cursor is not closed.
+     * @param cursor the cursor
+     * @return this
+     */
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    public ColumnarResult read(Cursor cursor){
+        prepare(cursor.getColumnNames(), cursor.getCount());
+
+        final int columnCount = columnNames.length;
+        while(cursor.moveToNext()){
+            if(rowCount == capacity) grow(capacity * 2);
+
+            final int row = rowCount++;
+            for(int column = 0; column < columnCount; column++){
+                int type = cursor.getType(column);
+                if(type == Cursor.FIELD_TYPE_NULL){
+                    nulls[column][row >> 5] |= 1 << (row & 31);
+                    continue;
+                }
+
+                switch (typeOf(column, type)){
+                    case TYPE_LONG:
+                        longs[column][row] = cursor.getLong(column);
+                        break;
+                    case TYPE_DOUBLE:
+                        doubles[column][row] = cursor.getDouble(column);
+                        break;
+                    case TYPE_STRING:
+                        strings[column][row] = cursor.getString(column);
+                        break;
+                    case TYPE_BLOB:
+                        blobs[column][row] = cursor.getBlob(column);
+                        break;
+                }
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Returns the number of rows
+     * @return the number of rows
+     */
+    public int getRowCount(){
+        return rowCount;
+    }
+
+    /**
+     * Returns the number of columns
+     * @return the number of columns
+     */
+    public int getColumnCount(){
+        return columnNames.length;
+    }
+
+    /**
+     * Returns the column name
+     * @param column the column index
+     * @return the column name
+     */
+    public String getColumnName(int column){
+        return columnNames[column];
+    }
+
+    /**
+     * Returns the index of the column
+     * @param columnName the column name
+     * @return the column index, -1 if not found
+     */
+    public int getColumnIndex(String columnName){
+        for(int i = 0; i < columnNames.length; i++){
+            if(columnNames[i].equalsIgnoreCase(columnName)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the type of the column ({@link #TYPE_LONG}, {@link #TYPE_DOUBLE}, ..).
+     * The type is taken from the first non-null value. Integers are read as doubles
+     * if the column has any floating point value, numbers and text mixed in one column
+     * are read as strings.
+     * @param column the column index
+     * @return the type
+     */
+    public int getType(int column){
+        return types[column];
+    }
+
+    /**
+     * Returns true if the value is null
+     * @param column the column index
+     * @param row the row index
+     * @return true if null
+     */
+    public boolean isNull(int column, int row){
+        if(row < 0 || row >= rowCount) throw new IndexOutOfBoundsException("Row: " + row + ", Count: " + rowCount);
+        return (nulls[column][row >> 5] & (1 << (row & 31))) != 0;
+    }
+
+    /**
+     * Returns the values of a {@link #TYPE_LONG} column. Nulls are 0
+     * @param column the column index
+     * @return the values (the array may be longer than the row count)
+     * @throws IllegalArgumentException if the column is not {@link #TYPE_LONG}
+     */
+    public long[] getLongs(int column){
+        ensureType(column, TYPE_LONG);
+        return longs[column];
+    }
+
+    /**
+     * Returns the values of a {@link #TYPE_DOUBLE} column. Nulls are 0
+     * @param column the column index
+     * @return the values (the array may be longer than the row count)
+     * @throws IllegalArgumentException if the column is not {@link #TYPE_DOUBLE}
+     */
+    public double[] getDoubles(int column){
+        ensureType(column, TYPE_DOUBLE);
+        return doubles[column];
+    }
+
+    /**
+     * Returns the values of a {@link #TYPE_STRING} column
+     * @param column the column index
+     * @return the values (the array may be longer than the row count)
+     * @throws IllegalArgumentException if the column is not {@link #TYPE_STRING}
+     */
+    public String[] getStrings(int column){
+        ensureType(column, TYPE_STRING);
+        return strings[column];
+    }
+
+    /**
+     * Returns the values of a {@link #TYPE_BLOB} column
+     * @param column the column index
+     * @return the values (the array may be longer than the row count)
+     * @throws IllegalArgumentException if the column is not {@link #TYPE_BLOB}
+     */
+    public byte[][] getBlobs(int column){
+        ensureType(column, TYPE_BLOB);
+        return blobs[column];
+    }
+
+    /**
+     * Clears the rows. The columns and their arrays are kept to be reused
+     */
+    public void clear(){
+        prepare(columnNames, 0);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void ensureType(int column, int type){
+        if(types[column] != type)
+            throw new IllegalArgumentException("Column " + columnNames[column] + " is not of type " + type + " (" + types[column] + ")");
+    }
+
+    /**
+     * Resets the rows, arrays are kept if the columns are the same
+     */
+    private void prepare(String[] names, int expectedRows){
+        if(names.length != columnNames.length){
+            columnNames = names;
+            types = new int[names.length];
+            longs = new long[names.length][];
+            doubles = new double[names.length][];
+            strings = new String[names.length][];
+            blobs = new byte[names.length][][];
+            nulls = new int[names.length][];
+            capacity = 0;
+        }
+        else {
+            columnNames = names;
+            for(int column = 0; column < names.length; column++){
+                // objects are released, values of nulls are 0
+                if(strings[column] != null) Arrays.fill(strings[column], null);
+                if(blobs[column] != null) Arrays.fill(blobs[column], null);
+                if(longs[column] != null) Arrays.fill(longs[column], 0);
+                if(doubles[column] != null) Arrays.fill(doubles[column], 0);
+                if(nulls[column] != null) Arrays.fill(nulls[column], 0);
+                types[column] = TYPE_NULL;
+            }
+        }
+
+        rowCount = 0;
+        if(capacity == 0 || expectedRows > capacity) grow(Math.max(Math.max(expectedRows, DEFAULT_CAPACITY), capacity));
+    }
+
+    /**
+     * Returns the type to store the value, the column arrays are allocated
+     * (or converted) if needed
+     */
+    private int typeOf(int column, int fieldType){
+        int type = types[column];
+        if(fieldType == Cursor.FIELD_TYPE_BLOB ? (type != TYPE_NULL && type != TYPE_BLOB) : type == TYPE_BLOB)
+            throw new IllegalStateException("Column " + columnNames[column] + " has both blob and non-blob values");
+
+        switch (fieldType){
+            case Cursor.FIELD_TYPE_INTEGER:
+                if(type == TYPE_NULL) type = setType(column, TYPE_LONG);
+                break;
+            case Cursor.FIELD_TYPE_FLOAT:
+                if(type == TYPE_NULL) type = setType(column, TYPE_DOUBLE);
+                else if(type == TYPE_LONG){
+                    // integers are converted
+                    if(doubles[column] == null || doubles[column].length < capacity) doubles[column] = new double[capacity];
+                    for(int row = 0; row < rowCount; row++){
+                        doubles[column][row] = longs[column][row];
+                    }
+                    type = types[column] = TYPE_DOUBLE;
+                }
+                break;
+            case Cursor.FIELD_TYPE_STRING:
+                if(type == TYPE_NULL) type = setType(column, TYPE_STRING);
+                else if(type == TYPE_LONG || type == TYPE_DOUBLE){
+                    // numbers are converted, the rest of the column is read as text
+                    setType(column, TYPE_STRING);
+                    for(int row = 0; row < rowCount; row++){
+                        if((nulls[column][row >> 5] & (1 << (row & 31))) != 0) continue;
+                        strings[column][row] = type == TYPE_LONG ? Long.toString(longs[column][row]) : Double.toString(doubles[column][row]);
+                    }
+                    type = TYPE_STRING;
+                }
+                break;
+            case Cursor.FIELD_TYPE_BLOB:
+                if(type == TYPE_NULL) type = setType(column, TYPE_BLOB);
+                break;
+        }
+        return type;
+    }
+
+    private int setType(int column, int type){
+        switch (type){
+            case TYPE_LONG:
+                if(longs[column] == null || longs[column].length < capacity) longs[column] = new long[capacity];
+                break;
+            case TYPE_DOUBLE:
+                if(doubles[column] == null || doubles[column].length < capacity) doubles[column] = new double[capacity];
+                break;
+            case TYPE_STRING:
+                if(strings[column] == null || strings[column].length < capacity) strings[column] = new String[capacity];
+                break;
+            case TYPE_BLOB:
+                if(blobs[column] == null || blobs[column].length < capacity) blobs[column] = new byte[capacity][];
+                break;
+        }
+        types[column] = type;
+        return type;
+    }
+
+    /**
+     * Grows the arrays of every column (geometrically).
+     * Arrays.copyOf() is API 9
+     */
+    private void grow(int newCapacity){
+        for(int column = 0; column < columnNames.length; column++){
+            if(nulls[column] == null || nulls[column].length < (newCapacity + 31) >> 5){
+                int[] array = new int[(newCapacity + 31) >> 5];
+                if(nulls[column] != null) System.arraycopy(nulls[column], 0, array, 0, nulls[column].length);
+                nulls[column] = array;
+            }
+
+            switch (types[column]){
+                case TYPE_LONG:
+                    long[] longArray = new long[newCapacity];
+                    System.arraycopy(longs[column], 0, longArray, 0, rowCount);
+                    longs[column] = longArray;
+                    break;
+                case TYPE_DOUBLE:
+                    double[] doubleArray = new double[newCapacity];
+                    System.arraycopy(doubles[column], 0, doubleArray, 0, rowCount);
+                    doubles[column] = doubleArray;
+                    break;
+                case TYPE_STRING:
+                    String[] stringArray = new String[newCapacity];
+                    System.arraycopy(strings[column], 0, stringArray, 0, rowCount);
+                    strings[column] = stringArray;
+                    break;
+                case TYPE_BLOB:
+                    byte[][] blobArray = new byte[newCapacity][];
+                    System.arraycopy(blobs[column], 0, blobArray, 0, rowCount);
+                    blobs[column] = blobArray;
+                    break;
+            }
+        }
+        capacity = newCapacity;
+    }
+}
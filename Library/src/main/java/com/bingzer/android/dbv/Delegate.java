@@ -37,6 +37,15 @@ import java.util.HashMap;
  *   <li>{@link com.bingzer.android.dbv.Delegate.TypeShort Delegate.TypeShort} for <code>Short</code> getter/setter</li>
  *   <li>{@link com.bingzer.android.dbv.Delegate.TypeString Delegate.TypeString} for <code>String</code> getter/setter</li>
  * </ul>
+ * Primitive types don't need to be boxed:
+ * <ul>
+ *   <li>{@link com.bingzer.android.dbv.Delegate.PrimitiveInt Delegate.PrimitiveInt} for <code>int</code> getter/setter</li>
+ *   <li>{@link com.bingzer.android.dbv.Delegate.PrimitiveLong Delegate.PrimitiveLong} for <code>long</code> getter/setter</li>
+ *   <li>{@link com.bingzer.android.dbv.Delegate.PrimitiveShort Delegate.PrimitiveShort} for <code>short</code> getter/setter</li>
+ *   <li>{@link com.bingzer.android.dbv.Delegate.PrimitiveDouble Delegate.PrimitiveDouble} for <code>double</code> getter/setter</li>
+ *   <li>{@link com.bingzer.android.dbv.Delegate.PrimitiveFloat Delegate.PrimitiveFloat} for <code>float</code> getter/setter</li>
+ *   <li>{@link com.bingzer.android.dbv.Delegate.PrimitiveBoolean Delegate.PrimitiveBoolean} for <code>boolean</code> getter/setter</li>
+ * </ul>
  *
  * <p>
  * {@link com.bingzer.android.dbv.Delegate} is used inside the
@@ -70,13 +79,34 @@ import java.util.HashMap;
 @SuppressWarnings("ALL")
 public abstract class Delegate<T> {
 
+    public static final int TYPE_OBJECT = 0;
+    public static final int TYPE_STRING = 1;
+    public static final int TYPE_INTEGER = 2;
+    public static final int TYPE_BOOLEAN = 3;
+    public static final int TYPE_DOUBLE = 4;
+    public static final int TYPE_LONG = 5;
+    public static final int TYPE_SHORT = 6;
+    public static final int TYPE_FLOAT = 7;
+    public static final int TYPE_BYTES = 8;
+    public static final int TYPE_BYTE = 9;
+    public static final int TYPE_PRIMITIVE_INT = 10;
+    public static final int TYPE_PRIMITIVE_LONG = 11;
+    public static final int TYPE_PRIMITIVE_SHORT = 12;
+    public static final int TYPE_PRIMITIVE_DOUBLE = 13;
+    public static final int TYPE_PRIMITIVE_FLOAT = 14;
+    public static final int TYPE_PRIMITIVE_BOOLEAN = 15;
+    /** Type is not supported */
+    public static final int TYPE_UNKNOWN = -1;
+
     private Class<?> type;
+    private final int typeTag;
 
     /**
      * Construct a delegate
      * @param type the type
+     * @param typeTag the type tag
      */
-    private Delegate(Class<?> type){
+    private Delegate(Class<?> type, int typeTag){
         if(type == null) {
             // use reflection
             try{
@@ -88,12 +118,22 @@ public abstract class Delegate<T> {
         }
 
         this.type = type;
+        this.typeTag = typeTag != TYPE_UNKNOWN ? typeTag : getTypeTag(type);
     }
 
     public Class<?> getType(){
         return type;
     }
 
+    /**
+     * Returns the type tag (one of the <code>TYPE_</code> constants).
+     * Unlike {@link #getType()}, it can be used in a switch statement
+     * @return the type tag
+     */
+    public final int getTypeTag(){
+        return typeTag;
+    }
+
     /**
      * Sets the value
      * @param value the value to set
@@ -130,7 +170,7 @@ public abstract class Delegate<T> {
         final IEntity entity;
 
         public TypeId(IEntity entity) {
-            super(Long.class);
+            super(Long.class, TYPE_LONG);
             this.entity = entity;
         }
 
@@ -147,7 +187,7 @@ public abstract class Delegate<T> {
      */
     public static abstract class TypeString extends Delegate<String> {
         public TypeString() {
-            super(String.class);
+            super(String.class, TYPE_STRING);
         }
     }
 
@@ -158,7 +198,7 @@ public abstract class Delegate<T> {
      */
     public static abstract class TypeInteger extends Delegate<Integer> {
         public TypeInteger() {
-            super(Integer.class);
+            super(Integer.class, TYPE_INTEGER);
         }
     }
 
@@ -169,7 +209,7 @@ public abstract class Delegate<T> {
      */
     public static abstract class TypeLong extends Delegate<Long> {
         public TypeLong() {
-            super(Long.class);
+            super(Long.class, TYPE_LONG);
         }
     }
 
@@ -180,7 +220,7 @@ public abstract class Delegate<T> {
      */
     public static abstract class TypeShort extends Delegate<Short> {
         public TypeShort() {
-            super(Short.class);
+            super(Short.class, TYPE_SHORT);
         }
     }
 
@@ -191,7 +231,7 @@ public abstract class Delegate<T> {
      */
     public static abstract class TypeFloat extends Delegate<Float> {
         public TypeFloat() {
-            super(Float.class);
+            super(Float.class, TYPE_FLOAT);
         }
     }
 
@@ -202,7 +242,7 @@ public abstract class Delegate<T> {
      */
     public static abstract class TypeBoolean extends Delegate<Boolean> {
         public TypeBoolean() {
-            super(Boolean.class);
+            super(Boolean.class, TYPE_BOOLEAN);
         }
     }
 
@@ -213,7 +253,7 @@ public abstract class Delegate<T> {
      */
     public static abstract class TypeDouble extends Delegate<Double> {
         public TypeDouble() {
-            super(Double.class);
+            super(Double.class, TYPE_DOUBLE);
         }
     }
 
@@ -224,7 +264,7 @@ public abstract class Delegate<T> {
      */
     public static abstract class TypeBytes extends Delegate<byte[]> {
         public TypeBytes() {
-            super(byte[].class);
+            super(byte[].class, TYPE_BYTES);
         }
     }
 
@@ -235,8 +275,235 @@ public abstract class Delegate<T> {
      */
     public static abstract class TypeObject extends Delegate<Object> {
         public TypeObject() {
-            super(Object.class);
+            super(Object.class, TYPE_OBJECT);
+        }
+    }
+
+    //////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Delegate type for <code>int</code>.
+     * Values are set and returned without boxing
+     * @see com.bingzer.android.dbv.IEntity.Mapper
+     * @see Delegate
+     */
+    public static abstract class PrimitiveInt extends Delegate<Integer> {
+        public PrimitiveInt() {
+            super(Integer.class, TYPE_PRIMITIVE_INT);
+        }
+
+        /**
+         * Sets the value
+         * @param value the value to set
+         */
+        public abstract void setInt(int value);
+
+        /**
+         * Returns the value
+         * @return the value
+         */
+        public abstract int getInt();
+
+        @Override
+        public final void set(Integer value) {
+            setInt(value == null ? 0 : value);
+        }
+
+        @Override
+        public final Integer get() {
+            return getInt();
+        }
+    }
+
+    /**
+     * Delegate type for <code>long</code>.
+     * Values are set and returned without boxing
+     * @see com.bingzer.android.dbv.IEntity.Mapper
+     * @see Delegate
+     */
+    public static abstract class PrimitiveLong extends Delegate<Long> {
+        public PrimitiveLong() {
+            super(Long.class, TYPE_PRIMITIVE_LONG);
+        }
+
+        /**
+         * Sets the value
+         * @param value the value to set
+         */
+        public abstract void setLong(long value);
+
+        /**
+         * Returns the value
+         * @return the value
+         */
+        public abstract long getLong();
+
+        @Override
+        public final void set(Long value) {
+            setLong(value == null ? 0 : value);
+        }
+
+        @Override
+        public final Long get() {
+            return getLong();
+        }
+    }
+
+    /**
+     * Delegate type for <code>short</code>.
+     * Values are set and returned without boxing
+     * @see com.bingzer.android.dbv.IEntity.Mapper
+     * @see Delegate
+     */
+    public static abstract class PrimitiveShort extends Delegate<Short> {
+        public PrimitiveShort() {
+            super(Short.class, TYPE_PRIMITIVE_SHORT);
+        }
+
+        /**
+         * Sets the value
+         * @param value the value to set
+         */
+        public abstract void setShort(short value);
+
+        /**
+         * Returns the value
+         * @return the value
+         */
+        public abstract short getShort();
+
+        @Override
+        public final void set(Short value) {
+            setShort(value == null ? (short) 0 : value);
+        }
+
+        @Override
+        public final Short get() {
+            return getShort();
+        }
+    }
+
+    /**
+     * Delegate type for <code>double</code>.
+     * Values are set and returned without boxing
+     * @see com.bingzer.android.dbv.IEntity.Mapper
+     * @see Delegate
+     */
+    public static abstract class PrimitiveDouble extends Delegate<Double> {
+        public PrimitiveDouble() {
+            super(Double.class, TYPE_PRIMITIVE_DOUBLE);
         }
+
+        /**
+         * Sets the value
+         * @param value the value to set
+         */
+        public abstract void setDouble(double value);
+
+        /**
+         * Returns the value
+         * @return the value
+         */
+        public abstract double getDouble();
+
+        @Override
+        public final void set(Double value) {
+            setDouble(value == null ? 0 : value);
+        }
+
+        @Override
+        public final Double get() {
+            return getDouble();
+        }
+    }
+
+    /**
+     * Delegate type for <code>float</code>.
+     * Values are set and returned without boxing
+     * @see com.bingzer.android.dbv.IEntity.Mapper
+     * @see Delegate
+     */
+    public static abstract class PrimitiveFloat extends Delegate<Float> {
+        public PrimitiveFloat() {
+            super(Float.class, TYPE_PRIMITIVE_FLOAT);
+        }
+
+        /**
+         * Sets the value
+         * @param value the value to set
+         */
+        public abstract void setFloat(float value);
+
+        /**
+         * Returns the value
+         * @return the value
+         */
+        public abstract float getFloat();
+
+        @Override
+        public final void set(Float value) {
+            setFloat(value == null ? 0 : value);
+        }
+
+        @Override
+        public final Float get() {
+            return getFloat();
+        }
+    }
+
+    /**
+     * Delegate type for <code>boolean</code>.
+     * Values are set and returned without boxing
+     * @see com.bingzer.android.dbv.IEntity.Mapper
+     * @see Delegate
+     */
+    public static abstract class PrimitiveBoolean extends Delegate<Boolean> {
+        public PrimitiveBoolean() {
+            super(Boolean.class, TYPE_PRIMITIVE_BOOLEAN);
+        }
+
+        /**
+         * Sets the value
+         * @param value the value to set
+         */
+        public abstract void setBoolean(boolean value);
+
+        /**
+         * Returns the value
+         * @return the value
+         */
+        public abstract boolean getBoolean();
+
+        @Override
+        public final void set(Boolean value) {
+            setBoolean(value == null ? false : value);
+        }
+
+        @Override
+        public final Boolean get() {
+            return getBoolean();
+        }
+    }
+
+    //////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Returns the type tag for the specified type
+     * @param type the type
+     * @return the type tag, {@link #TYPE_UNKNOWN} if not supported
+     */
+    public static int getTypeTag(Class<?> type){
+        if(type == String.class) return TYPE_STRING;
+        else if(type == Integer.class) return TYPE_INTEGER;
+        else if(type == Boolean.class) return TYPE_BOOLEAN;
+        else if(type == Double.class) return TYPE_DOUBLE;
+        else if(type == Long.class) return TYPE_LONG;
+        else if(type == Short.class) return TYPE_SHORT;
+        else if(type == Float.class) return TYPE_FLOAT;
+        else if(type == byte[].class) return TYPE_BYTES;
+        else if(type == Byte.class) return TYPE_BYTE;
+        else if(type == Object.class) return TYPE_OBJECT;
+        return TYPE_UNKNOWN;
     }
 
     //////////////////////////////////////////////////////////////////////////////////////////////
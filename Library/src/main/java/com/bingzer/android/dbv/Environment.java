@@ -15,6 +15,8 @@
  */
 package com.bingzer.android.dbv;
 
+import java.io.Closeable;
+
 /**
  * Default implementation of {@link IEnvironment}
  */
@@ -33,6 +35,9 @@ public class Environment implements IEnvironment {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     private IDatabase database = null;
+    private final IdentityMap identityMap = new IdentityMap();
+    private boolean identityMapEnabled = false;
+    private int scopeCount = 0;
 
     /**
      * Private Constructor to create a local environment
@@ -68,4 +73,75 @@ public class Environment implements IEnvironment {
         return database;
     }
 
+    /**
+     * Returns the identity map, only if it's enabled or
+     * there is a scope that has not been closed.
+     * @see #setIdentityMapEnabled(boolean)
+     * @see #beginScope()
+     */
+    @Override
+    public synchronized IdentityMap getIdentityMap(){
+        return identityMapEnabled || scopeCount > 0 ? identityMap : null;
+    }
+
+    /**
+     * Enables or disables the identity map (disabled by default).
+     * Disabling clears the map, unless there is a scope that has not been closed.
+     * @see com.bingzer.android.dbv.IdentityMap
+     */
+    public synchronized void setIdentityMapEnabled(boolean enabled){
+        identityMapEnabled = enabled;
+        if(!enabled && scopeCount == 0) identityMap.clear();
+    }
+
+    /**
+     * Begins a scope (unit of work). The identity map is enabled until the
+     * scope is closed. When the last scope is closed, the identity map is cleared.
+     * Scopes can be nested but they're not bound to a thread.
+     * <pre><code>
+     * Environment.Scope scope = environment.beginScope();
+     * try{
+     *     ...
+     * }
+     * finally {
+     *     scope.close();
+     * }
+     * </code></pre>
+     * @return the scope
+     */
+    public synchronized Scope beginScope(){
+        scopeCount++;
+        return new Scope();
+    }
+
+    private synchronized void endScope(){
+        if(--scopeCount == 0) identityMap.clear();
+    }
+
+    /////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Scope of the identity map
+     * @see #beginScope()
+     */
+    public final class Scope implements Closeable {
+        private boolean closed = false;
+
+        private Scope(){
+            // nothing
+        }
+
+        /**
+         * Ends the scope. Calling this method more than once has no effect
+         */
+        @Override
+        public void close(){
+            synchronized (Environment.this){
+                if(!closed){
+                    closed = true;
+                    endScope();
+                }
+            }
+        }
+    }
 }
@@ -92,6 +92,26 @@ public interface IConfig {
      */
     boolean getDebug();
 
+    /**
+     * Sets the size (in bytes) of the <code>CursorWindow</code> used by every
+     * cursor returned by this database. Smaller windows use less memory, bigger windows
+     * are refilled less often when reading wide rows (BLOBs, long TEXT).
+     * The default is <code>0</code>, which uses the platform's window size.
+     * <p>
+     * The window size can only be set on API 28 and up. On older API levels
+     * a plain select on a rowid table will be fetched in chunks of rows (keyed by rowid),
+     * see {@link com.bingzer.android.dbv.queries.Select#windowSize(int)}
+     * @param bytes the window size in bytes, or 0 to use the platform's default
+     * @throws java.lang.IllegalArgumentException if <code>bytes</code> is negative
+     */
+    void setCursorWindowSize(int bytes);
+
+    /**
+     * Returns the size of the <code>CursorWindow</code> in bytes
+     * @return the window size, 0 if the platform's default is used
+     */
+    int getCursorWindowSize();
+
     ////////////////////////////////////////////////////////////////////////
     /////////////////////////// Pre-open configs ///////////////////////////
     //////////// This needs to be called before open() /////////////////////
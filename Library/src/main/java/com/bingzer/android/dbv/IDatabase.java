@@ -15,8 +15,12 @@
  */
 package com.bingzer.android.dbv;
 
+import android.database.Cursor;
+
 import com.bingzer.android.dbv.contracts.RawQueryable;
 import com.bingzer.android.dbv.contracts.SqlExecutable;
+import com.bingzer.android.dbv.queries.IQuery;
+import com.bingzer.android.dbv.queries.PreparedSelect;
 
 import java.util.List;
 
@@ -248,6 +252,28 @@ public interface IDatabase extends RawQueryable, SqlExecutable {
      */
     Transaction begin(Batch batch);
 
+    /**
+     * Prepares a select statement so that it can be executed many times.
+     * The sql is generated once, subsequent calls only need to
+     * bind the arguments. Use '?' for every argument that changes.
+     * <pre>
+     * <code>
+     * PreparedSelect select = db.prepare(db.from("Customers").select("Country = ?").orderBy("Name"));
+     * Cursor us = select.bind("US").query();
+     * ...
+     * Cursor uk = select.bind("UK").query();
+     * </code>
+     * </pre>
+     * Any arguments given when building the <code>query</code> are
+     * bound by default.
+     *
+     * @param query a <code>Select</code>, <code>Join</code> or <code>Union</code> statement
+     *              (including its <code>OrderBy</code>, <code>GroupBy</code> or <code>Having</code>)
+     * @return the prepared select
+     * @see PreparedSelect
+     */
+    PreparedSelect prepare(IQuery<Cursor> query);
+
     /**
      * Returns the absolute path where this database file exists
      * Note: you must first <code>open</code> the database
@@ -257,6 +283,13 @@ public interface IDatabase extends RawQueryable, SqlExecutable {
      */
     String getPath();
 
+    /**
+     * Invalidates the result cache of every table.
+     * Call this after writing directly to the <code>SQLiteDatabase</code>
+     * @see com.bingzer.android.dbv.ITable#getCache()
+     */
+    void invalidateCache();
+
     ///////////////////////////////////////////////////////////////////////////
     ///////////////////////////////////////////////////////////////////////////
 
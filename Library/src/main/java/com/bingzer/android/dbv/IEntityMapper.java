@@ -0,0 +1,69 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteProgram;
+
+/**
+ * Maps an entity without any {@link com.bingzer.android.dbv.Delegate}.
+ * Mappers are generated at compile time (class name: <code>EntityClass$$DbQueryMapper</code>)
+ * for every {@link com.bingzer.android.dbv.BaseEntity} that has
+ * {@link com.bingzer.android.dbv.annotations.Column} fields. Once generated, they're used
+ * automatically to read entities from cursors and to insert or update them.
+ * <p>
+ * The id is not part of the columns.
+ *
+ * @param <E> the entity type
+ * @see com.bingzer.android.dbv.annotations.Column
+ */
+public interface IEntityMapper<E extends IEntity> {
+
+    /**
+     * Suffix of the generated class name
+     */
+    public static final String SUFFIX = "$$DbQueryMapper";
+
+    /**
+     * Returns the column names. All the other methods use the same order
+     * @return column names
+     */
+    String[] getColumns();
+
+    /**
+     * Reads the current row of the cursor
+     * @param entity the entity to set
+     * @param cursor the cursor
+     * @param columnIndices cursor index for every column of {@link #getColumns()}, -1 if not in the cursor
+     */
+    void read(E entity, Cursor cursor, int[] columnIndices);
+
+    /**
+     * Binds the values of every column of {@link #getColumns()}
+     * @param entity the entity
+     * @param program the program (statement or query)
+     * @param startIndex the (1-based) index of the first column
+     */
+    void bind(E entity, SQLiteProgram program, int startIndex);
+
+    /**
+     * Maps the columns using delegates (the id is not mapped).
+     * Used where delegates are needed (i.e: <code>ContentValues</code>)
+     * @param entity the entity
+     * @param mapper the mapper
+     */
+    void map(E entity, IEntity.Mapper mapper);
+}
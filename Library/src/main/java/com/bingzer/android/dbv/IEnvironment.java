@@ -27,4 +27,11 @@ public interface IEnvironment {
      */
     IDatabase getDatabase();
 
+    /**
+     * Returns the identity map used by {@link com.bingzer.android.dbv.BaseEntity}
+     * @return the identity map, null if disabled
+     * @see com.bingzer.android.dbv.IdentityMap
+     */
+    IdentityMap getIdentityMap();
+
 }
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv;
+
+import java.io.Closeable;
+
+/**
+ * An {@link com.bingzer.android.dbv.IEntityList} backed by an open cursor.
+ * Entities are mapped only when they're accessed and only the most recently
+ * used entities (the window) are kept in memory. Once an entity leaves the window,
+ * its instance is recycled to map another row.
+ * <p>
+ * <b>Important:</b>
+ * <ul>
+ *     <li>Do not keep a reference to an entity beyond the window size. Copy it if needed.</li>
+ *     <li>The list is read-only, {@link #add(IEntity)} is not supported.</li>
+ *     <li>The list holds a cursor. Always {@link #close()} it.</li>
+ *     <li>The list is not thread-safe.</li>
+ * </ul>
+ * <pre><code>
+ * ILazyEntityList&lt;Person&gt; list = db.from("Person").select().queryLazy(new PersonList());
+ * try{
+ *     for(Person person : list){
+ *         ...
+ *     }
+ * }
+ * finally {
+ *     list.close();
+ * }
+ * </code></pre>
+ *
+ * @param <T> the entity type
+ * @see com.bingzer.android.dbv.contracts.LazyEntitySelectable
+ */
+public interface ILazyEntityList<T extends IEntity> extends IEntityList<T>, Closeable {
+
+    /**
+     * Default number of entities kept in memory
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 64;
+
+    /**
+     * Returns the number of rows
+     * @return the number of rows
+     */
+    int size();
+
+    /**
+     * Returns the entity at the specified position.
+     * The entity is mapped from the cursor if it's not in the window
+     * @param position the position
+     * @return the entity
+     * @throws java.lang.IndexOutOfBoundsException if position is out of range
+     * @throws java.lang.IllegalStateException if the list is closed
+     */
+    T get(int position);
+
+    /**
+     * Returns true if closed
+     * @return true if closed
+     */
+    boolean isClosed();
+
+    /**
+     * Closes the cursor and releases all entities
+     */
+    @Override
+    void close();
+
+}
@@ -30,8 +30,11 @@ import com.bingzer.android.dbv.contracts.Selectable;
 import com.bingzer.android.dbv.contracts.Tangible;
 import com.bingzer.android.dbv.contracts.Unionable;
 import com.bingzer.android.dbv.contracts.Updatable;
+import com.bingzer.android.dbv.queries.IQuery;
+import com.bingzer.android.dbv.queries.Insert;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents a table. {@link com.bingzer.android.dbv.ITable} provides full
@@ -126,6 +129,185 @@ public interface ITable extends
      */
     int getColumnCount();
 
+    /**
+     * Selects multiple entities by their ids. The entities are mapped
+     * and added to the <code>entityList</code> and returned keyed by their ids.
+     * Ids that are not found are simply not in the map.
+     * <p>
+     * Ids are bound in chunks, so there's no limit on how many ids can be specified.
+     * <pre><code>
+     * Map&lt;Long, Person&gt; people = db.from("Person").selectMap(personList, 1, 2, 3);
+     * </code></pre>
+     * @param entityList the entity list to add the entities to
+     * @param ids the ids
+     * @param <E> entity type
+     * @return map of id to entity
+     */
+    <E extends IEntity> Map<Long, E> selectMap(IEntityList<E> entityList, long... ids);
+
+    /**
+     * Updates only the specified columns of an {@link IEntity} (by its id).
+     * Other columns are not written.
+     * If no column is specified, all columns are updated (see {@link #update(IEntity)})
+     * <pre><code>
+     * db.from("Person").update(person, "Age");
+     * </code></pre>
+     * @param entity the entity to update
+     * @param columns the columns to update
+     * @return the number of rows updated
+     * @throws IllegalArgumentException if a column is not mapped by the entity
+     */
+    IQuery<Integer> update(IEntity entity, String... columns);
+
+    /**
+     * Bulk-inserts an entity list, committing every <code>chunkSize</code> entities.
+     * All entities are bound to the same compiled statement.
+     * If a chunk fails, it is rolled back and the rest of the list is not inserted.
+     * Chunks committed before it are kept.
+     * The returned value (via Insert.query()) is the number of entities committed.
+     * Ids are automatically populated inside the IEntity object
+     * <pre><code>
+     * db.from("Person").insert(personList, 1000);
+     * </code></pre>
+     * @param entityList the entity list to insert
+     * @param chunkSize number of entities per transaction
+     * @param <E> extends IEntity
+     * @return an Insert object
+     * @throws IllegalArgumentException if <code>chunkSize</code> is 0 or less
+     * @see #insert(IEntityList)
+     */
+    <E extends IEntity> Insert insert(IEntityList<E> entityList, int chunkSize);
+
+    /**
+     * Inserts the entity, or updates it if its id already exists.
+     * New entities (id less than or equals to 0) are always inserted and their ids are assigned.
+     * Unlike <code>INSERT OR REPLACE</code>, an existing row is updated in place
+     * (it's not deleted first), columns that are not mapped keep their values.
+     * <p>
+     * On SQLite 3.24 and up, this is a single <code>INSERT .. ON CONFLICT DO UPDATE</code>.
+     * Otherwise the row is updated first, then inserted if nothing is updated.
+     * <pre><code>
+     * db.from("Person").upsert(person);
+     * </code></pre>
+     * @param entity the entity
+     * @return an Insert object, the id of the entity
+     * @see #upsert(IEntityList)
+     */
+    Insert upsert(IEntity entity);
+
+    /**
+     * Inserts or updates every entity in a single transaction (see {@link #upsert(IEntity)}).
+     * The entities are bound to the same compiled statement.
+     * <code>query()</code> method will return -1 if there's an error and the
+     * transaction is rolled back. Otherwise, it will return the number of entities upserted
+     * @param entityList the entity list
+     * @param <E> extends IEntity
+     * @return the number of entities upserted
+     */
+    <E extends IEntity> IQuery<Integer> upsert(IEntityList<E> entityList);
+
+    /**
+     * Bulk-updates entities (by their ids) in a single transaction.
+     * Entities that update the same columns share one compiled statement.
+     * The selector decides what columns are updated for each entity
+     * (in the same order as the entities), if <code>selector</code> is null every column is updated.
+     * <pre><code>
+     * int[] counts = db.from("Person").update(personList, new ITable.ColumnSelector&lt;Person&gt;() {
+     *     public String[] getColumns(Person person) {
+     *         return person.isAgeChanged() ? new String[]{ "Age" } : null;
+     *     }
+     * }).query();
+     * </code></pre>
+     * @param entities the entities to update
+     * @param selector the columns to update for each entity (maybe null)
+     * @param <E> extends IEntity
+     * @return the number of rows updated for each entity (in the same order).
+     *          <code>query()</code> returns null if there's an error and the transaction is rolled back
+     * @see #update(IEntityList)
+     */
+    <E extends IEntity> IQuery<int[]> update(Iterable<E> entities, ColumnSelector<? super E> selector);
+
+    /**
+     * Returns the result cache of this table.
+     * The cache is disabled by default (max size is 0).
+     * @return the cache
+     * @throws UnsupportedOperationException if this is a view
+     * @see com.bingzer.android.dbv.ITable.Cache
+     */
+    Cache getCache();
+
+    //////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Decides what columns of an entity are updated
+     * (see {@link ITable#update(Iterable, ColumnSelector)})
+     * @param <E> the entity type
+     */
+    public static interface ColumnSelector<E extends IEntity> {
+
+        /**
+         * Returns the columns to update
+         * @param entity the entity
+         * @return the columns, null or empty to update every column
+         */
+        String[] getColumns(E entity);
+
+    }
+
+    /**
+     * Read-through cache of the query results of a table.
+     * Select queries (without joins, unions or subqueries), <code>count()</code>, <code>has()</code>,
+     * <code>selectId()</code>, functions and aggregates are cached by their sql and arguments.
+     * Cached cursors are in-memory snapshots (a new cursor is returned on every hit),
+     * so entities mapped from them are always new copies.
+     * Use it for small tables that are read very often.
+     * <p>
+     * Every insert, update, delete, alter or drop of this table invalidates the cache,
+     * as well as {@link IDatabase#execSql(String)}. Writes done directly to the
+     * <code>SQLiteDatabase</code> must be followed by {@link IDatabase#invalidateCache()}.
+     * <pre><code>
+     * db.from("Country").getCache().setMaxSize(50);
+     * </code></pre>
+     */
+    public static interface Cache {
+
+        /**
+         * Sets the maximum number of cached results (least recently used are evicted).
+         * Sets to 0 to disable the cache
+         * @param maxSize max number of results
+         */
+        void setMaxSize(int maxSize);
+
+        /**
+         * Returns the maximum number of cached results. 0 if disabled
+         * @return max size
+         */
+        int getMaxSize();
+
+        /**
+         * Returns the number of cached results
+         * @return the number of cached results
+         */
+        int size();
+
+        /**
+         * Returns the number of queries that were found in the cache
+         * @return hit count
+         */
+        long getHitCount();
+
+        /**
+         * Returns the number of queries that were not found in the cache
+         * @return miss count
+         */
+        long getMissCount();
+
+        /**
+         * Removes all cached results
+         */
+        void invalidate();
+    }
+
     //////////////////////////////////////////////////////////////////////////////////////////////
 
     /**
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * First-level cache of the rows loaded or saved by {@link com.bingzer.android.dbv.BaseEntity},
+ * keyed by table name and id. {@link BaseEntity#load(long)} doesn't query the database when
+ * the row is found here.
+ * <p>
+ * Values are softly referenced, they're released under memory pressure.
+ * Only <code>BaseEntity</code> maintains the map (<code>load()</code>, <code>save()</code> and <code>delete()</code>),
+ * changes made through {@link com.bingzer.android.dbv.ITable} are not seen. Use it for a unit of work
+ * (see {@link Environment#beginScope()}) or clear it when needed.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @see IEnvironment#getIdentityMap()
+ */
+public class IdentityMap {
+
+    private final Map<Key, Entry> entries = new HashMap<Key, Entry>();
+    private final ReferenceQueue<Map<String, Object>> queue = new ReferenceQueue<Map<String, Object>>();
+
+    /**
+     * Returns the values of the row, null if not found
+     * @param tableName the table name
+     * @param id the id
+     * @return the values keyed by column names (must not be modified)
+     */
+    synchronized Map<String, Object> get(String tableName, long id){
+        purge();
+        Entry entry = entries.get(new Key(tableName, id));
+        return entry == null ? null : entry.get();
+    }
+
+    /**
+     * Puts the values of the row
+     * @param tableName the table name
+     * @param id the id
+     * @param values the values keyed by column names (will not be modified)
+     */
+    synchronized void put(String tableName, long id, Map<String, Object> values){
+        purge();
+        Key key = new Key(tableName, id);
+        entries.put(key, new Entry(key, values, queue));
+    }
+
+    /**
+     * Removes the row
+     * @param tableName the table name
+     * @param id the id
+     */
+    public synchronized void remove(String tableName, long id){
+        entries.remove(new Key(tableName, id));
+    }
+
+    /**
+     * Returns the number of rows (including the ones that have been released but not yet purged)
+     * @return the number of rows
+     */
+    public synchronized int size(){
+        purge();
+        return entries.size();
+    }
+
+    /**
+     * Removes all rows
+     */
+    public synchronized void clear(){
+        entries.clear();
+        while(queue.poll() != null){
+            // drain
+        }
+    }
+
+    /**
+     * Removes the entries whose values have been released
+     */
+    private void purge(){
+        Entry entry;
+        while((entry = (Entry) queue.poll()) != null){
+            // only if it's not been replaced
+            if(entries.get(entry.key) == entry) entries.remove(entry.key);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final class Key {
+        final String tableName;
+        final long id;
+
+        Key(String tableName, long id){
+            this.tableName = tableName;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return id == key.id && tableName.equals(key.tableName);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * tableName.hashCode() + (int) (id ^ (id >>> 32));
+        }
+    }
+
+    private static final class Entry extends SoftReference<Map<String, Object>> {
+        final Key key;
+
+        Entry(Key key, Map<String, Object> values, ReferenceQueue<Map<String, Object>> queue){
+            super(values, queue);
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv;
+
+import android.database.Cursor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads every row of a query into a lightweight object
+ * without going through {@link IEntity} mapping.
+ * Column indices are resolved once, before the first row.
+ * <pre><code>
+ * List&lt;String&gt; labels = db.from("Products").select().queryAs(new RowReader&lt;String&gt;("Name", "Price") {
+ *     public String read(Cursor cursor, int[] columns) {
+ *         return cursor.getString(columns[0]) + " $" + cursor.getDouble(columns[1]);
+ *     }
+ * });
+ * </code></pre>
+ * @param <T> type of the row object
+ * @see com.bingzer.android.dbv.contracts.RowReadable
+ */
+public abstract class RowReader<T> {
+
+    private final String[] columnNames;
+
+    /**
+     * Creates a reader of the named columns.
+     * If no name is specified, every column of the cursor will be read
+     * (in the cursor's order)
+     * @param columnNames the column names
+     */
+    protected RowReader(String... columnNames){
+        this.columnNames = columnNames;
+    }
+
+    /**
+     * Reads the current row
+     * @param cursor the cursor positioned at the row
+     * @param columns the index of every column (in the same order as the column names)
+     * @return the row object
+     */
+    public abstract T read(Cursor cursor, int[] columns);
+
+    /**
+     * Reads every row of the cursor. The cursor is not closed.
+     * @param cursor the cursor
+     * @return list of the row objects
+     * @throws java.lang.IllegalArgumentException if a column doesn't exist
+     */
+    public List<T> readAll(Cursor cursor){
+        int[] columns = resolveColumns(cursor);
+        List<T> list = new ArrayList<T>(cursor.getCount());
+        while(cursor.moveToNext()){
+            list.add(read(cursor, columns));
+        }
+        return list;
+    }
+
+    private int[] resolveColumns(Cursor cursor){
+        int[] columns;
+        if(columnNames == null || columnNames.length == 0){
+            columns = new int[cursor.getColumnCount()];
+            for(int i = 0; i < columns.length; i++){
+                columns[i] = i;
+            }
+        }
+        else {
+            columns = new int[columnNames.length];
+            for(int i = 0; i < columns.length; i++){
+                columns[i] = cursor.getColumnIndexOrThrow(columnNames[i]);
+            }
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,276 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv;
+
+import android.annotation.TargetApi;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.os.Build;
+
+import com.bingzer.android.dbv.utils.CursorUtils;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Rows of a query as an {@link Iterable}. Every row is returned as
+ * a <code>Cursor</code> positioned at that row. The cursor is closed
+ * once the last row has been read or when {@link #close()} is called.
+ * <pre><code>
+ * RowStream rows = db.from("Customers").select().stream();
+ * try{
+ *     for(Cursor cursor : rows){
+ *         if(cursor.getString(1).equals("Kaka")) break;
+ *     }
+ * }
+ * finally {
+ *     rows.close();
+ * }
+ * </code></pre>
+ * A stream can only be iterated once.
+ * <p>
+ * With prefetch, the rows are read on a worker thread in batches of
+ * <code>prefetchRows</code> rows. The next batch is read while the current one is
+ * being processed. Rows are then returned as copies (in a <code>MatrixCursor</code>),
+ * the query cursor is never touched by the caller's thread.
+ * Prefetch requires Honeycomb (API 11) or higher. Don't prefetch inside
+ * a transaction: the worker would wait for the connection held by the transaction
+ * (or, with write-ahead logging, read without the uncommitted rows).
+ * Queries do not prefetch while the calling thread is in a transaction.
+ */
+public class RowStream implements Iterable<Cursor>, Closeable {
+
+    private final Cursor cursor;
+    private final int prefetchRows;
+    private Prefetcher prefetcher;
+    private MatrixCursor batch;
+    private boolean iterated = false;
+    private boolean closed = false;
+
+    /**
+     * Streams the rows of the cursor
+     * @param cursor the cursor
+     */
+    public RowStream(Cursor cursor){
+        this.cursor = cursor;
+        this.prefetchRows = 0;
+    }
+
+    /**
+     * Streams the rows of the cursor, prefetching
+     * <code>prefetchRows</code> rows at a time on a worker thread
+     * @param cursor the cursor
+     * @param prefetchRows number of rows per batch
+     * @throws java.lang.IllegalArgumentException if <code>prefetchRows</code> is 0 or less
+     */
+    public RowStream(Cursor cursor, int prefetchRows){
+        if(prefetchRows <= 0) {
+            cursor.close();
+            throw new IllegalArgumentException("prefetchRows must be greater than 0");
+        }
+        this.cursor = cursor;
+        this.prefetchRows = prefetchRows;
+    }
+
+    /**
+     * Returns the iterator of the rows
+     * @return the iterator
+     * @throws java.lang.IllegalStateException if this stream has been iterated before
+     */
+    @Override
+    public Iterator<Cursor> iterator() {
+        if(iterated) throw new IllegalStateException("RowStream can only be iterated once");
+        iterated = true;
+
+        if(prefetchRows > 0 && !closed){
+            prefetcher = new Prefetcher();
+            prefetcher.start();
+        }
+        return new RowIterator();
+    }
+
+    /**
+     * Returns true if this stream has been closed
+     * @return true if closed
+     */
+    public boolean isClosed(){
+        return closed;
+    }
+
+    /**
+     * Closes the stream (and the cursor).
+     * Must be called when the iteration stops early.
+     */
+    @Override
+    public synchronized void close() {
+        if(closed) return;
+        closed = true;
+
+        if(batch != null) batch.close();
+        if(prefetcher != null) prefetcher.cancel();
+        else cursor.close();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Moves to the next row.
+     * @return the cursor of the row, null if there are no more rows
+     */
+    private Cursor moveToNext(){
+        if(closed) return null;
+        if(prefetcher == null){
+            if(cursor.moveToNext()) return cursor;
+        }
+        else {
+            while(batch == null || !batch.moveToNext()){
+                if(batch != null) batch.close();
+                batch = prefetcher.take();
+                if(batch == null) break;
+            }
+            if(batch != null) return batch;
+        }
+
+        close();
+        return null;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private class RowIterator implements Iterator<Cursor> {
+        private Cursor next;
+        private boolean moved = false;
+
+        @Override
+        public boolean hasNext() {
+            if(!moved){
+                next = moveToNext();
+                moved = true;
+            }
+            return next != null;
+        }
+
+        @Override
+        public Cursor next() {
+            if(!hasNext()) throw new NoSuchElementException();
+            moved = false;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Reads the batches of rows on its own thread.
+     * At most one batch is waiting to be taken
+     */
+    private class Prefetcher extends Thread {
+        private final BlockingQueue<Batch> queue = new ArrayBlockingQueue<Batch>(1);
+        private volatile boolean cancelled = false;
+
+        Prefetcher(){
+            super("DbQuery-RowStream");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            RuntimeException failure = null;
+            try{
+                fetch();
+            }
+            catch (InterruptedException e){
+                // cancelled
+                return;
+            }
+            catch (RuntimeException e){
+                failure = e;
+            }
+            finally {
+                cursor.close();
+            }
+
+            try{
+                queue.put(new Batch(null, failure));
+            }
+            catch (InterruptedException e){
+                // cancelled
+            }
+        }
+
+        @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+        private void fetch() throws InterruptedException {
+            String[] columnNames = cursor.getColumnNames();
+            int count = prefetchRows;
+            while(!cancelled && count == prefetchRows){
+                MatrixCursor rows = new MatrixCursor(columnNames, prefetchRows);
+                for(count = 0; count < prefetchRows && cursor.moveToNext(); count++){
+                    Object[] values = new Object[columnNames.length];
+                    for(int i = 0; i < values.length; i++){
+                        values[i] = CursorUtils.getValueFromCursor(cursor, i);
+                    }
+                    rows.addRow(values);
+                }
+                if(count > 0) queue.put(new Batch(rows, null));
+            }
+        }
+
+        /**
+         * Takes the next batch
+         * @return the batch, null if there are no more rows
+         */
+        MatrixCursor take(){
+            Batch next;
+            try{
+                next = queue.take();
+            }
+            catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                return null;
+            }
+
+            if(next.failure != null) {
+                close();
+                throw next.failure;
+            }
+            return next.rows;
+        }
+
+        void cancel(){
+            cancelled = true;
+            interrupt();
+            queue.clear();
+        }
+    }
+
+    private static class Batch {
+        final MatrixCursor rows;
+        final RuntimeException failure;
+
+        Batch(MatrixCursor rows, RuntimeException failure){
+            this.rows = rows;
+            this.failure = failure;
+        }
+    }
+}
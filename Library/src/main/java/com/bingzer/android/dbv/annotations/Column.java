@@ -0,0 +1,49 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field of an {@link com.bingzer.android.dbv.AnnotatedEntity} as a column.
+ * When the <code>MapperCompiler</code> annotation processor is on the compile classpath,
+ * a {@link com.bingzer.android.dbv.IEntityMapper} is generated for the entity.
+ * <pre><code>
+ * public class Person extends AnnotatedEntity {
+ *     &#64;Column("Name") String name;
+ *     &#64;Column("Age") int age;
+ *     ...
+ * }
+ * </code></pre>
+ * The field must not be private. The id is not a column,
+ * it's always mapped through {@link com.bingzer.android.dbv.BaseEntity#getId()}.
+ *
+ * @see com.bingzer.android.dbv.IEntityMapper
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface Column {
+
+    /**
+     * The column name. If not specified, the name of the field is used
+     * @return the column name
+     */
+    String value() default "";
+
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.contracts;
+
+import com.bingzer.android.dbv.ColumnarResult;
+
+/**
+ * Selects the result into primitive arrays (by columns)
+ */
+public interface ColumnarSelectable {
+
+    /**
+     * Reads the whole result into a {@link ColumnarResult}.
+     * Numeric values are stored in <code>long[]</code> or <code>double[]</code>,
+     * no object is created per value.
+     * Cursor will be open and closed automatically.
+     * <p>
+     * Sample code: Chart of all orders
+     * <pre>
+     * <code>ColumnarResult result = db.from("Orders")
+     *       .select()
+     *       .columns("Date", "Total")
+     *       .queryColumns();
+     * chart.setData(result.getLongs(0), result.getDoubles(1), result.getRowCount());
+     * </code>
+     * </pre>
+     * @return the result
+     */
+    ColumnarResult queryColumns();
+
+    /**
+     * Reads the whole result into an existing {@link ColumnarResult}.
+     * Its arrays are reused (and grown if needed).
+     * Cursor will be open and closed automatically.
+     * @param result the result to read into
+     * @return <code>result</code>
+     */
+    ColumnarResult queryColumns(ColumnarResult result);
+
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.contracts;
+
+import com.bingzer.android.dbv.IEntity;
+import com.bingzer.android.dbv.queries.ISequence;
+
+/**
+ * Entity enumerable.
+ */
+public interface EntityEnumerable {
+
+    /**
+     * Iterates through the result using a single entity.
+     * Every row is mapped into the same <code>entity</code> instance
+     * before the sequence is called, no other entity is created.
+     * The iteration stops when the sequence returns false.
+     * Cursor will be open and closed automatically after this method returns.
+     * <p>
+     * Since the entity is reused, do not keep it (or pass it around) beyond
+     * {@link ISequence#next(Object)}. Copy it if needed.
+     * <p>
+     * Sample code: Sum all customers ages
+     * <pre>
+     * <code>final long[] sum = {0};
+     * db.from("Customers")
+     *       .select()
+     *       .query(new Customer(), new ISequence&lt;Customer&gt;(){
+     *           public boolean next(Customer customer){
+     *               sum[0] += customer.getAge();
+     *               return true;
+     *           }
+     *       });
+     * </code>
+     * </pre>
+     * @param entity the entity to map every row into
+     * @param sequence the sequence
+     * @param <E> IEntity
+     */
+    <E extends IEntity> void query(E entity, ISequence<E> sequence);
+
+}
@@ -16,6 +16,7 @@
 
 package com.bingzer.android.dbv.contracts;
 
+import com.bingzer.android.dbv.queries.Aggregate;
 import com.bingzer.android.dbv.queries.Average;
 import com.bingzer.android.dbv.queries.Max;
 import com.bingzer.android.dbv.queries.Min;
@@ -156,4 +157,15 @@ public interface Function {
      * @return {@link com.bingzer.android.dbv.queries.Average}
      */
     Min min(String columnName, String whereClause, Object... args);
+
+    /**
+     * Returns an aggregate for the specified <code>columnName</code>.
+     * Multiple functions can be computed with a single statement
+     * <pre><code>
+     * Aggregate.Result result = table.aggregate("Price").min().max().avg().query();
+     * </code></pre>
+     * @param columnName column name
+     * @return {@link com.bingzer.android.dbv.queries.Aggregate}
+     */
+    Aggregate aggregate(String columnName);
 }
@@ -0,0 +1,57 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.contracts;
+
+import com.bingzer.android.dbv.IEntity;
+import com.bingzer.android.dbv.IEntityList;
+import com.bingzer.android.dbv.ILazyEntityList;
+
+/**
+ * Extension for a lazy {@link com.bingzer.android.dbv.IEntityList}
+ *
+ * @see com.bingzer.android.dbv.ILazyEntityList
+ */
+public interface LazyEntitySelectable {
+
+    /**
+     * Query and returns a list that maps the entities only when accessed.
+     * The list keeps the cursor open, it must be closed.
+     * <p>
+     * Sample Code:
+     * <pre>
+     * <code>ILazyEntityList&lt;Customer&gt; customers = db.from("Customers").select().queryLazy(new CustomerList());
+     * ...
+     * customers.close();
+     * </code>
+     * </pre>
+     * @param entityList creates the entities (see {@link IEntityList#newEntity()}), nothing is added to it
+     * @param <E> IEntity
+     * @return the lazy list
+     * @see ILazyEntityList#DEFAULT_WINDOW_SIZE
+     */
+    <E extends IEntity> ILazyEntityList<E> queryLazy(IEntityList<E> entityList);
+
+    /**
+     * Query and returns a list that maps the entities only when accessed.
+     * The list keeps the cursor open, it must be closed.
+     * @param entityList creates the entities (see {@link IEntityList#newEntity()}), nothing is added to it
+     * @param windowSize the number of entities kept in memory
+     * @param <E> IEntity
+     * @return the lazy list
+     */
+    <E extends IEntity> ILazyEntityList<E> queryLazy(IEntityList<E> entityList, int windowSize);
+
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.contracts;
+
+import com.bingzer.android.dbv.RowReader;
+
+import java.util.List;
+
+/**
+ * Selects the result into lightweight row objects
+ */
+public interface RowReadable {
+
+    /**
+     * Reads every row with the {@link RowReader}. This is a leaner
+     * alternative to {@link com.bingzer.android.dbv.IEntity} mapping
+     * when only a few columns are needed.
+     * Cursor will be open and closed automatically.
+     * <p>
+     * Sample code: Names of all customers
+     * <pre>
+     * <code>List&lt;String&gt; names = db.from("Customers")
+     *       .select()
+     *       .queryAs(new RowReader&lt;String&gt;("Name"){
+     *           public String read(Cursor cursor, int[] columns){
+     *               return cursor.getString(columns[0]);
+     *           }
+     *       });
+     * </code>
+     * </pre>
+     * @param reader the reader
+     * @param <T> type of the row object
+     * @return list of the row objects (in the same order as the rows)
+     */
+    <T> List<T> queryAs(RowReader<T> reader);
+
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.contracts;
+
+import com.bingzer.android.dbv.RowStream;
+
+/**
+ * Selects the result as a stream of rows
+ */
+public interface RowStreamable {
+
+    /**
+     * Returns the rows as a {@link RowStream}.
+     * The cursor is closed when the last row has been read,
+     * or when the stream is closed.
+     * <p>
+     * Sample code: Export all customers
+     * <pre>
+     * <code>RowStream rows = db.from("Customers").select().stream();
+     * try{
+     *     for(Cursor cursor : rows){
+     *         writer.writeLine(cursor.getString(0));
+     *     }
+     * }
+     * finally {
+     *     rows.close();
+     * }
+     * </code>
+     * </pre>
+     * @return the stream
+     */
+    RowStream stream();
+
+    /**
+     * Returns the rows as a {@link RowStream}. Rows are read on a worker
+     * thread, <code>prefetchRows</code> rows at a time, while the previous
+     * rows are being processed.
+     * Inside a transaction the rows are not prefetched, they're read on the calling thread
+     * (the worker can't use the transaction's connection).
+     * @param prefetchRows number of rows read at a time
+     * @return the stream
+     * @throws java.lang.IllegalArgumentException if <code>prefetchRows</code> is 0 or less
+     */
+    RowStream stream(int prefetchRows);
+
+}
@@ -0,0 +1,246 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.internal;
+
+import android.database.Cursor;
+
+import com.bingzer.android.dbv.queries.Aggregate;
+import com.bingzer.android.dbv.queries.Average;
+import com.bingzer.android.dbv.queries.IQuery;
+import com.bingzer.android.dbv.queries.Max;
+import com.bingzer.android.dbv.queries.Min;
+import com.bingzer.android.dbv.queries.Sum;
+import com.bingzer.android.dbv.queries.Total;
+import com.bingzer.android.dbv.utils.CursorUtils;
+import com.bingzer.android.dbv.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Implementation of {@link Aggregate}.
+ * All functions are selected by a single statement.
+ */
+class AggregateImpl implements Aggregate {
+
+    static final String MIN = "MIN";
+    static final String MAX = "MAX";
+    static final String AVG = "AVG";
+    static final String SUM = "SUM";
+    static final String TOTAL = "TOTAL";
+    static final String COUNT = "COUNT";
+
+    private final Table table;
+    private final String columnName;
+    private final List<String> functions = new ArrayList<String>();
+    private final StringBuilder whereString = new StringBuilder();
+    private Object[] whereArgs = Utils.EMPTY_ARGS;
+
+    AggregateImpl(Table table, String columnName){
+        this.table = table;
+        this.columnName = columnName;
+    }
+
+    @Override
+    public Aggregate min() {
+        return add(MIN);
+    }
+
+    @Override
+    public Aggregate max() {
+        return add(MAX);
+    }
+
+    @Override
+    public Aggregate avg() {
+        return add(AVG);
+    }
+
+    @Override
+    public Aggregate sum() {
+        return add(SUM);
+    }
+
+    @Override
+    public Aggregate total() {
+        return add(TOTAL);
+    }
+
+    @Override
+    public Aggregate count() {
+        return add(COUNT);
+    }
+
+    @Override
+    public Aggregate where(String condition) {
+        return where(condition, (Object) null);
+    }
+
+    @Override
+    public Aggregate where(String whereClause, Object... args) {
+        if(whereClause != null){
+            // append where if necessary
+            if(!whereClause.toLowerCase(Locale.getDefault()).startsWith("where"))
+                whereString.append(" WHERE ");
+            whereString.append(whereClause);
+            whereArgs = Utils.concatArgs(whereArgs, Utils.normalizeArgs(whereClause, args));
+        }
+        return this;
+    }
+
+    @Override
+    public Result query() {
+        Cursor cursor = table.cachedQuery(toSql(), whereArgs);
+        try{
+            cursor.moveToNext();
+            return new ResultImpl(cursor, new ArrayList<String>(functions), Collections.<String>emptyList());
+        }
+        finally {
+            cursor.close();
+        }
+    }
+
+    @Override
+    public IQuery<List<Result>> groupBy(final String... columns) {
+        return new IQuery<List<Result>>() {
+            @Override
+            public List<Result> query() {
+                List<String> names = new ArrayList<String>(functions);
+                List<String> groupColumns = new ArrayList<String>();
+                Collections.addAll(groupColumns, columns);
+
+                List<Result> results = new ArrayList<Result>();
+                Cursor cursor = table.cachedQuery(toString(), whereArgs);
+                try{
+                    while(cursor.moveToNext()){
+                        results.add(new ResultImpl(cursor, names, groupColumns));
+                    }
+                }
+                finally {
+                    cursor.close();
+                }
+                return results;
+            }
+
+            @Override
+            public String toString(){
+                String groupBy = Utils.join(",", columns);
+                return toSql(groupBy) + " GROUP BY " + groupBy;
+            }
+        };
+    }
+
+    @Override
+    public String toString(){
+        return toSql();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private Aggregate add(String function){
+        if(!functions.contains(function)) functions.add(function);
+        return this;
+    }
+
+    private String toSql(){
+        return toSql(null);
+    }
+
+    /**
+     * SELECT [groupColumns,] FN(column), FN(column).. FROM table WHERE ..
+     */
+    private String toSql(String groupColumns){
+        if(functions.size() == 0)
+            throw new IllegalArgumentException("No function is specified");
+
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if(groupColumns != null) sql.append(groupColumns).append(",");
+        for(int i = 0; i < functions.size(); i++){
+            if(i > 0) sql.append(",");
+            sql.append(functions.get(i)).append("(").append(columnName).append(")");
+        }
+        return sql.append(" FROM ").append(table).append(whereString).toString();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private class ResultImpl implements Result {
+        private final List<String> functions;
+        private final double[] values;
+        private final Map<String, Object> groups;
+
+        ResultImpl(Cursor cursor, List<String> functions, List<String> groupColumns){
+            this.functions = functions;
+            this.values = new double[functions.size()];
+
+            // group by columns come first, then the functions
+            int offset = groupColumns.size();
+            groups = new HashMap<String, Object>(offset * 2);
+            for(int i = 0; i < offset; i++){
+                groups.put(groupColumns.get(i), CursorUtils.getValueFromCursor(cursor, i));
+            }
+            for(int i = 0; i < values.length; i++){
+                values[i] = cursor.getDouble(offset + i);
+            }
+        }
+
+        @Override
+        public Min min() {
+            int index = functions.indexOf(MIN);
+            return index < 0 ? null : new MinImpl(columnName, values[index]);
+        }
+
+        @Override
+        public Max max() {
+            int index = functions.indexOf(MAX);
+            return index < 0 ? null : new MaxImpl(columnName, values[index]);
+        }
+
+        @Override
+        public Average avg() {
+            int index = functions.indexOf(AVG);
+            return index < 0 ? null : new AverageImpl(columnName, values[index]);
+        }
+
+        @Override
+        public Sum sum() {
+            int index = functions.indexOf(SUM);
+            return index < 0 ? null : new SumImpl(columnName, values[index]);
+        }
+
+        @Override
+        public Total total() {
+            int index = functions.indexOf(TOTAL);
+            return index < 0 ? null : new TotalImpl(columnName, values[index]);
+        }
+
+        @Override
+        public long count() {
+            int index = functions.indexOf(COUNT);
+            return index < 0 ? -1 : (long) values[index];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(String columnName) {
+            return (T) groups.get(columnName);
+        }
+    }
+}
@@ -21,7 +21,11 @@ import com.bingzer.android.dbv.queries.Average;
 * Created by Ricky on 4/26/2014.
 */
 class AverageImpl extends FunctionImpl implements Average {
-    public AverageImpl(String tableName, String columnName, String condition){
-        super("AVG", tableName, columnName, condition);
+    public AverageImpl(String tableName, String columnName, String condition, Object... args){
+        super("AVG", tableName, columnName, condition, args);
+    }
+
+    AverageImpl(String columnName, double value){
+        super("AVG", columnName, value);
     }
 }
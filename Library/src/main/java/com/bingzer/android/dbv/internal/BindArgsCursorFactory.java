@@ -0,0 +1,56 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.internal;
+
+import android.annotation.TargetApi;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteCursorDriver;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteQuery;
+import android.os.Build;
+
+import com.bingzer.android.dbv.utils.StatementUtils;
+
+/**
+ * Cursor factory that binds the arguments to the compiled query
+ * by their types instead of binding everything as strings.
+ * Since the sql never contains the values, SQLite is able to reuse
+ * the same compiled statement regardless of the argument values.
+ * <p>
+ * Cursors are {@link WindowedCursor}s.
+ */
+class BindArgsCursorFactory implements SQLiteDatabase.CursorFactory {
+
+    private final Object[] args;
+    private final int windowSize;
+    private final boolean debug;
+
+    BindArgsCursorFactory(Object[] args, int windowSize, boolean debug){
+        this.args = args;
+        this.windowSize = windowSize;
+        this.debug = debug;
+    }
+
+    @Override
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    public Cursor newCursor(SQLiteDatabase db, SQLiteCursorDriver masterQuery, String editTable, SQLiteQuery query) {
+        StatementUtils.bindArgs(query, args);
+
+        if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB)
+            return new WindowedCursor(masterQuery, editTable, query, windowSize, debug);
+        return new WindowedCursor(db, masterQuery, editTable, query, windowSize, debug);
+    }
+}
@@ -0,0 +1,257 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.internal;
+
+import android.database.sqlite.SQLiteStatement;
+
+import com.bingzer.android.dbv.Delegate;
+import com.bingzer.android.dbv.IBaseEntity;
+import com.bingzer.android.dbv.IEntity;
+import com.bingzer.android.dbv.IEntityMapper;
+import com.bingzer.android.dbv.utils.MapperUtils;
+import com.bingzer.android.dbv.utils.StatementUtils;
+
+/**
+ * Inserts many entities through a single compiled INSERT statement.
+ * The statement is planned from the columns mapped by the first entity
+ * of each type (the primary key is excluded). Every entity after that binds its delegates
+ * straight into the statement as they're mapped, no <code>Delegate.Mapper</code>
+ * or <code>ContentValues</code> is created.
+ * <p>
+ * An entity that maps a different set of columns is inserted
+ * on its own (see {@link Table#insert(IEntity)}). Entities with a generated
+ * {@link IEntityMapper} are bound by the mapper.
+ * <p>
+ * When upserting, the id is bound too (null for new entities) and if
+ * SQLite supports it (3.24 and up), the row is updated when the id already exists
+ * (<code>ON CONFLICT DO UPDATE</code>). Otherwise the caller is expected
+ * to update existing rows first (see {@link Table#upsert(IEntity)}).
+ * <p>
+ * The statement is not shared, call {@link #close()} when done.
+ */
+class BulkInsert implements IEntity.Mapper {
+
+    private final Table table;
+    private final String idColumn;
+    private final boolean upsert;
+
+    private SQLiteStatement statement;
+    private Class<?> entityClass;
+    private IEntityMapper<IEntity> entityMapper;
+
+    private String[] columns = new String[8];
+    private boolean planning;
+    private int size;
+    private int position;
+    private boolean mismatch;
+    private Delegate<Long> idDelegate;
+
+    BulkInsert(Table table){
+        this(table, false);
+    }
+
+    BulkInsert(Table table, boolean upsert){
+        this.table = table;
+        this.idColumn = table.getPrimaryKeyColumn();
+        this.upsert = upsert;
+    }
+
+    /**
+     * Inserts the entity and assigns its new id
+     * @param entity the entity
+     * @return the row id of the inserted row
+     */
+    long insert(IEntity entity){
+        if(entity.getClass() != entityClass){
+            prepare(entity);
+        }
+
+        long id;
+        if(entityMapper != null){
+            entityMapper.bind(entity, statement, 1);
+            id = execute(entity);
+            ((IBaseEntity) entity).setId(id);
+            return id;
+        }
+
+        position = 0;
+        mismatch = false;
+        idDelegate = null;
+        entity.map(this);
+
+        if(mismatch || position != size){
+            // this one maps other columns
+            statement.clearBindings();
+            return upsert ? table.upsert(entity).query() : table.insert(entity).query();
+        }
+
+        id = execute(entity);
+        if(idDelegate != null) idDelegate.set(id);
+        return id;
+    }
+
+    private long execute(IEntity entity){
+        if(!upsert) return statement.executeInsert();
+
+        // the id is the last column
+        long id = entity.getId();
+        if(id > 0) statement.bindLong(size + 1, id);
+        else statement.bindNull(size + 1);
+
+        long rowId = statement.executeInsert();
+        // the row id is not reported when the row is updated instead
+        return id > 0 ? id : rowId;
+    }
+
+    /**
+     * Releases the statement
+     */
+    void close(){
+        if(statement != null){
+            statement.close();
+            statement = null;
+        }
+        entityClass = null;
+        table.cache.invalidate();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void map(String column, Delegate delegate) {
+        if(column.equals(idColumn)){
+            idDelegate = delegate;
+            return;
+        }
+
+        int slot = position++;
+        if(planning){
+            plan(slot, column);
+        }
+        else if(slot >= size || !column.equals(columns[slot])){
+            mismatch = true;
+        }
+        else if(!mismatch){
+            StatementUtils.bindDelegate(statement, slot + 1, delegate);
+        }
+    }
+
+    @Override
+    public void mapId(Delegate<Long> delegate) {
+        map(idColumn, delegate);
+    }
+
+    /**
+     * Delegates are not kept
+     */
+    @Override
+    public void clear() {
+        // nothing
+    }
+
+    /**
+     * Delegates are not kept, always returns null
+     */
+    @Override
+    public Delegate get(String column) {
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void prepare(IEntity entity){
+        if(statement != null) statement.close();
+        statement = null;
+
+        entityClass = null;
+        entityMapper = MapperUtils.getMapper(entity);
+
+        if(entityMapper != null){
+            String[] mapperColumns = entityMapper.getColumns();
+            size = mapperColumns.length;
+            statement = compile(mapperColumns, size);
+            entityClass = entity.getClass();
+            return;
+        }
+
+        // the first entity decides the columns
+        position = 0;
+        planning = true;
+        try{
+            entity.map(this);
+        }
+        finally {
+            planning = false;
+        }
+        size = position;
+
+        statement = compile(columns, size);
+        entityClass = entity.getClass();
+    }
+
+    private void plan(int slot, String column){
+        if(slot >= columns.length){
+            // Arrays.copyOf() is API 9
+            String[] newColumns = new String[columns.length * 2];
+            System.arraycopy(columns, 0, newColumns, 0, slot);
+            columns = newColumns;
+        }
+
+        columns[slot] = column;
+    }
+
+    private SQLiteStatement compile(String[] columns, int count){
+        final StringBuilder sql = new StringBuilder("INSERT INTO ").append(table.getName());
+        if(upsert){
+            sql.append(" (");
+            for(int i = 0; i < count; i++){
+                sql.append(columns[i]).append(",");
+            }
+            sql.append(idColumn).append(") VALUES (");
+            for(int i = 0; i < count; i++){
+                sql.append("?,");
+            }
+            sql.append("?)");
+
+            if(table.db.isUpsertSupported()){
+                sql.append(" ON CONFLICT(").append(idColumn).append(")");
+                if(count == 0) sql.append(" DO NOTHING");
+                else {
+                    sql.append(" DO UPDATE SET ");
+                    for(int i = 0; i < count; i++){
+                        if(i > 0) sql.append(",");
+                        sql.append(columns[i]).append("=excluded.").append(columns[i]);
+                    }
+                }
+            }
+        }
+        else if(count == 0){
+            sql.append(" DEFAULT VALUES");
+        }
+        else {
+            sql.append(" (");
+            for(int i = 0; i < count; i++){
+                if(i > 0) sql.append(",");
+                sql.append(columns[i]);
+            }
+            sql.append(") VALUES (");
+            for(int i = 0; i < count; i++){
+                sql.append(i == 0 ? "?" : ",?");
+            }
+            sql.append(")");
+        }
+
+        return table.db.sqLiteDb.compileStatement(sql.toString());
+    }
+}
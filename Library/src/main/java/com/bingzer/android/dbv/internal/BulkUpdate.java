@@ -0,0 +1,234 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.internal;
+
+import android.annotation.TargetApi;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Build;
+
+import com.bingzer.android.dbv.Delegate;
+import com.bingzer.android.dbv.IEntity;
+import com.bingzer.android.dbv.IEntityMapper;
+import com.bingzer.android.dbv.utils.MapperUtils;
+import com.bingzer.android.dbv.utils.StatementUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Updates many entities (by their ids), compiling one UPDATE statement per column set.
+ * Entities that update every column share the statement planned from the first
+ * entity of their type, entities that update some columns share the statement of
+ * the same columns (in the same order). Delegates are bound straight into the statement
+ * as they're mapped, no <code>Delegate.Mapper</code> or <code>ContentValues</code> is created.
+ * <p>
+ * An entity that doesn't map the planned columns is updated on its own
+ * (see {@link Table#update(IEntity, String...)}). Before honeycomb, every entity is.
+ * <p>
+ * The statements are not shared, call {@link #close()} when done.
+ */
+class BulkUpdate implements IEntity.Mapper {
+
+    private final Table table;
+    private final String idColumn;
+    private final Map<String, Plan> plans = new HashMap<String, Plan>();
+
+    private Plan plan;
+    private List<String> planning;
+    private int bound;
+    private boolean mismatch;
+
+    BulkUpdate(Table table){
+        this.table = table;
+        this.idColumn = table.getPrimaryKeyColumn();
+    }
+
+    /**
+     * Updates the entity
+     * @param entity the entity
+     * @param columns the columns to update, null or empty to update every column
+     * @return number of rows updated
+     */
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    int update(IEntity entity, String... columns){
+        if(entity.getId() < 0) throw new IllegalArgumentException("Id has to be over than 0");
+
+        // executeUpdateDelete() is only available on honeycomb and up
+        if(Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB)
+            return table.update(entity, columns).query();
+
+        boolean all = columns == null || columns.length == 0;
+        // column names never start with '*'
+        String signature = all ? "*" + entity.getClass().getName() : join(columns);
+        plan = plans.get(signature);
+        if(plan == null){
+            plan = all ? planAll(entity) : planColumns(columns);
+            plans.put(signature, plan);
+        }
+
+        // nothing to update
+        if(plan.size == 0) return 0;
+
+        if(plan.entityMapper != null){
+            plan.entityMapper.bind(entity, plan.statement, 1);
+        }
+        else {
+            bound = 0;
+            mismatch = false;
+            entity.map(this);
+
+            if(mismatch || bound != plan.size){
+                // this one maps other columns
+                plan.statement.clearBindings();
+                return table.update(entity, columns).query();
+            }
+        }
+
+        plan.statement.bindLong(plan.size + 1, entity.getId());
+        return plan.statement.executeUpdateDelete();
+    }
+
+    /**
+     * Releases the statements
+     */
+    void close(){
+        for(Plan p : plans.values()){
+            if(p.statement != null) p.statement.close();
+        }
+        plans.clear();
+        plan = null;
+        table.cache.invalidate();
+    }
+
+    @Override
+    public void map(String column, Delegate delegate) {
+        if(column.equals(idColumn)) return;
+
+        if(planning != null){
+            if(!planning.contains(column)) planning.add(column);
+            return;
+        }
+
+        Integer index = plan.indices.get(column);
+        if(index == null){
+            // not planned, only allowed when updating some columns
+            if(plan.all) mismatch = true;
+        }
+        else if(!mismatch){
+            StatementUtils.bindDelegate(plan.statement, index, delegate);
+            bound++;
+        }
+    }
+
+    @Override
+    public void mapId(Delegate<Long> delegate) {
+        map(idColumn, delegate);
+    }
+
+    /**
+     * Delegates are not kept
+     */
+    @Override
+    public void clear() {
+        // nothing
+    }
+
+    /**
+     * Delegates are not kept, always returns null
+     */
+    @Override
+    public Delegate get(String column) {
+        return null;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Plans every column, from the generated mapper or from the columns the entity maps
+     */
+    private Plan planAll(IEntity entity){
+        IEntityMapper<IEntity> entityMapper = MapperUtils.getMapper(entity);
+        if(entityMapper != null){
+            Plan p = compile(entityMapper.getColumns(), true);
+            p.entityMapper = entityMapper;
+            return p;
+        }
+
+        planning = new ArrayList<String>();
+        try{
+            entity.map(this);
+            return compile(planning.toArray(new String[planning.size()]), true);
+        }
+        finally {
+            planning = null;
+        }
+    }
+
+    private Plan planColumns(String[] columns){
+        List<String> planned = new ArrayList<String>(columns.length);
+        for(String column : columns){
+            if(!column.equals(idColumn) && !planned.contains(column)) planned.add(column);
+        }
+        return compile(planned.toArray(new String[planned.size()]), false);
+    }
+
+    private Plan compile(String[] columns, boolean all){
+        Plan p = new Plan(all, columns.length);
+        if(columns.length == 0) return p;
+
+        final StringBuilder sql = new StringBuilder("UPDATE ").append(table.getName()).append(" SET ");
+        for(int i = 0; i < columns.length; i++){
+            if(i > 0) sql.append(",");
+            sql.append(columns[i]).append("=?");
+            p.indices.put(columns[i], i + 1);
+        }
+        sql.append(" WHERE ").append(idColumn).append(" = ?");
+
+        p.statement = table.db.sqLiteDb.compileStatement(sql.toString());
+        return p;
+    }
+
+    private static String join(String[] columns){
+        StringBuilder signature = new StringBuilder();
+        for(int i = 0; i < columns.length; i++){
+            if(i > 0) signature.append(",");
+            signature.append(columns[i]);
+        }
+        return signature.toString();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Compiled statement of a column set.
+     * Columns are bound in order, the id is bound last
+     */
+    private static final class Plan {
+        private final boolean all;
+        private final int size;
+        private final Map<String, Integer> indices;
+        private SQLiteStatement statement;
+        private IEntityMapper<IEntity> entityMapper;
+
+        Plan(boolean all, int size){
+            this.all = all;
+            this.size = size;
+            this.indices = new HashMap<String, Integer>(size * 2);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.internal;
+
+import android.annotation.TargetApi;
+import android.database.AbstractCursor;
+import android.database.Cursor;
+import android.os.Build;
+import android.os.Bundle;
+
+import com.bingzer.android.dbv.utils.CursorUtils;
+import com.bingzer.android.dbv.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fallback for a sized window on API levels that can't set the size
+ * of a <code>CursorWindow</code>. The rows of a select are fetched in chunks,
+ * each with its own query keyed by rowid:
+ * <pre><code>
+ * SELECT * FROM (SELECT columns, rowid AS _chunk_key FROM table WHERE ...)
+ *     WHERE _chunk_key &gt; ? ORDER BY _chunk_key LIMIT rowsPerChunk
+ * </code></pre>
+ * Only one chunk is open at a time. The number of rows in a chunk is
+ * estimated from the window size ({@link #ESTIMATED_ROW_SIZE} bytes per row).
+ * <p>
+ * Rows are returned in rowid order, so this only works for a select
+ * on a single rowid table (not <code>WITHOUT ROWID</code>) without distinct,
+ * group by, order by, limit or any expression (i.e: an aggregate) in the columns.
+ */
+class ChunkedCursor extends AbstractCursor {
+
+    static final int ESTIMATED_ROW_SIZE = 512;
+    static final int MIN_CHUNK_ROWS = 16;
+    private static final String KEY_COLUMN = "_chunk_key";
+
+    private final Database db;
+    private final String chunkSql;
+    private final Object[] whereArgs;
+    private final int rowsPerChunk;
+    private final int count;
+    private final String[] columnNames;
+    // rows of chunk i have a rowid greater than keys[i]
+    private final List<Long> keys = new ArrayList<Long>();
+    private Cursor chunk;
+    private int chunkIndex = -1;
+    private int fills = 0;
+
+    ChunkedCursor(Database db, CharSequence columns, CharSequence from, CharSequence where, Object[] whereArgs, int windowSize){
+        this.db = db;
+        this.whereArgs = whereArgs;
+        this.rowsPerChunk = Math.max(MIN_CHUNK_ROWS, windowSize / ESTIMATED_ROW_SIZE);
+        this.chunkSql = "SELECT * FROM (SELECT " + columns + ", rowid AS " + KEY_COLUMN + " " + from + " " + where + ")" +
+                " WHERE " + KEY_COLUMN + " > ? ORDER BY " + KEY_COLUMN + " LIMIT " + rowsPerChunk;
+        this.count = queryCount("SELECT COUNT(*) " + from + " " + where);
+
+        keys.add(Long.MIN_VALUE);
+        openChunk(0);
+
+        String[] names = chunk.getColumnNames();
+        columnNames = new String[names.length - 1];
+        System.arraycopy(names, 0, columnNames, 0, columnNames.length);
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public String[] getColumnNames() {
+        return columnNames;
+    }
+
+    @Override
+    public boolean onMove(int oldPosition, int newPosition) {
+        int index = newPosition / rowsPerChunk;
+        if(index != chunkIndex && !moveToChunk(index)) return false;
+        return chunk.moveToPosition(newPosition - index * rowsPerChunk);
+    }
+
+    @Override
+    public String getString(int column) {
+        return chunk.getString(column);
+    }
+
+    @Override
+    public short getShort(int column) {
+        return chunk.getShort(column);
+    }
+
+    @Override
+    public int getInt(int column) {
+        return chunk.getInt(column);
+    }
+
+    @Override
+    public long getLong(int column) {
+        return chunk.getLong(column);
+    }
+
+    @Override
+    public float getFloat(int column) {
+        return chunk.getFloat(column);
+    }
+
+    @Override
+    public double getDouble(int column) {
+        return chunk.getDouble(column);
+    }
+
+    @Override
+    public byte[] getBlob(int column) {
+        return chunk.getBlob(column);
+    }
+
+    @Override
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    public int getType(int column) {
+        return chunk.getType(column);
+    }
+
+    @Override
+    public boolean isNull(int column) {
+        return chunk.isNull(column);
+    }
+
+    /**
+     * Window fills of every chunk
+     */
+    @Override
+    public Bundle getExtras() {
+        int total = fills;
+        if(chunk != null) total += Math.max(0, CursorUtils.getWindowFillCount(chunk));
+
+        Bundle extras = new Bundle(1);
+        extras.putInt(CursorUtils.EXTRA_WINDOW_FILLS, total);
+        return extras;
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        closeChunk();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Opens the chunk. The key of a chunk is only known
+     * once the chunk before it has been read, so chunks are
+     * walked one by one until <code>index</code> is reached
+     */
+    private boolean moveToChunk(int index){
+        while(keys.size() <= index){
+            int last = keys.size() - 1;
+            if(chunkIndex != last) openChunk(last);
+            if(!chunk.moveToLast()) return false;
+            keys.add(chunk.getLong(columnNames.length));
+        }
+
+        openChunk(index);
+        return true;
+    }
+
+    private void openChunk(int index){
+        closeChunk();
+        chunk = db.rawQuery(chunkSql, Utils.concatArgs(whereArgs, new Object[]{ keys.get(index) }), 0);
+        chunkIndex = index;
+    }
+
+    private void closeChunk(){
+        if(chunk != null){
+            fills += Math.max(0, CursorUtils.getWindowFillCount(chunk));
+            chunk.close();
+            chunk = null;
+            chunkIndex = -1;
+        }
+    }
+
+    private int queryCount(String sql){
+        Cursor cursor = db.rawQuery(sql, whereArgs, 0);
+        try{
+            return cursor.moveToNext() ? cursor.getInt(0) : 0;
+        }
+        finally {
+            cursor.close();
+        }
+    }
+}
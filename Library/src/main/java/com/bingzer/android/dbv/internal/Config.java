@@ -33,6 +33,7 @@ class Config implements IConfig {
     private boolean foreignKeySupport;
     private boolean debug;
     private boolean readOnly;
+    private int cursorWindowSize;
 
     public Config(){
         this.idNamingConvention = "Id";
@@ -40,6 +41,7 @@ class Config implements IConfig {
         this.foreignKeySupport = false;
         this.debug = false;
         this.readOnly = false;
+        this.cursorWindowSize = 0;
     }
 
     @Override
@@ -72,6 +74,17 @@ class Config implements IConfig {
         return debug;
     }
 
+    @Override
+    public void setCursorWindowSize(int bytes) {
+        if(bytes < 0) throw new IllegalArgumentException("Window size must be 0 or greater");
+        this.cursorWindowSize = bytes;
+    }
+
+    @Override
+    public int getCursorWindowSize() {
+        return cursorWindowSize;
+    }
+
     @Override
     public void setForeignKeySupport(boolean on) {
         this.foreignKeySupport = on;
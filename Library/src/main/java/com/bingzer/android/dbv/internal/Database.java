@@ -19,6 +19,7 @@ package com.bingzer.android.dbv.internal;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import android.util.Log;
 
 import com.bingzer.android.dbv.IConfig;
@@ -27,6 +28,7 @@ import com.bingzer.android.dbv.ITable;
 import com.bingzer.android.dbv.IView;
 import com.bingzer.android.dbv.SQLiteBuilder;
 import com.bingzer.android.dbv.queries.IQuery;
+import com.bingzer.android.dbv.queries.PreparedSelect;
 import com.bingzer.android.dbv.utils.Utils;
 
 import java.util.ArrayList;
@@ -48,6 +50,7 @@ public class Database implements IDatabase {
     private int version;
     private DbOpenHelper dbHelper;
     protected SQLiteDatabase sqLiteDb;
+    private Boolean upsertSupported;
 
     ////////////////////////////////////////////////
     ////////////////////////////////////////////////
@@ -184,6 +187,10 @@ public class Database implements IDatabase {
 
     @Override
     public void close() {
+        // release compiled statements before the connection goes away
+        for(ITable table : tables) ((Table) table).clearStatements();
+        for(IView view : views) ((View) view).clearStatements();
+
         if(dbHelper != null) dbHelper.close();
         if(sqLiteDb != null) sqLiteDb.close();
         // reset
@@ -204,6 +211,13 @@ public class Database implements IDatabase {
         return new TransactionImpl(this, batch);
     }
 
+    @Override
+    public PreparedSelect prepare(IQuery<Cursor> query) {
+        if(!(query instanceof SelectImpl))
+            throw new IllegalArgumentException("Only Select, Join or Union can be prepared");
+        return new PreparedSelectImpl((SelectImpl) query);
+    }
+
     @Override
     public String getPath() {
         return getSQLiteDatabase().getPath();
@@ -219,7 +233,7 @@ public class Database implements IDatabase {
         return new IQuery<Cursor>() {
             @Override
             public Cursor query() {
-                return getSQLiteDatabase().rawQuery(sql, Utils.toStringArray(args));
+                return rawQuery(sql, Utils.normalizeArgs(sql, args));
             }
         };
     }
@@ -227,19 +241,36 @@ public class Database implements IDatabase {
     @Override
     public void execSql(String sql) {
         enforceReadOnly();
-        getSQLiteDatabase().execSQL(sql);
+        try{
+            getSQLiteDatabase().execSQL(sql);
+        }
+        finally {
+            // any table may have been changed
+            invalidateCache();
+        }
     }
 
     @Override
     public void execSql(String sql, Object... args) {
         enforceReadOnly();
 
-        if(args == null) execSql(sql);
+        Object[] bindArgs = Utils.normalizeArgs(sql, args);
+        if(bindArgs.length == 0) execSql(sql);
         else{
-            getSQLiteDatabase().execSQL(Utils.bindArgs(sql, args));
+            try{
+                getSQLiteDatabase().execSQL(sql, bindArgs);
+            }
+            finally {
+                invalidateCache();
+            }
         }
     }
 
+    @Override
+    public void invalidateCache() {
+        for(ITable table : tables) ((Table) table).cache.invalidate();
+    }
+
     /**
      * Convenient method to from SQLiteOpenHelper object.
      * {@link IDatabase} must be opened first by calling
@@ -289,6 +320,25 @@ public class Database implements IDatabase {
     ////////////////////////////////////////////////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * Runs a query and binds the arguments by their types.
+     * Arguments must already match the number of '?' in the sql
+     * (see {@link Utils#normalizeArgs(String, Object...)})
+     */
+    Cursor rawQuery(String sql, Object[] args){
+        return rawQuery(sql, args, config.getCursorWindowSize());
+    }
+
+    /**
+     * Runs a query and binds the arguments by their types.
+     * The cursor uses a window of <code>windowSize</code> bytes if supported
+     * (see {@link IConfig#setCursorWindowSize(int)})
+     */
+    Cursor rawQuery(String sql, Object[] args, int windowSize){
+        BindArgsCursorFactory factory = new BindArgsCursorFactory(args, windowSize, config.getDebug());
+        return getSQLiteDatabase().rawQueryWithFactory(factory, sql, null, null);
+    }
+
     boolean removeTable(ITable table){
         if(table instanceof IView)
             return views.remove(table);
@@ -315,7 +365,45 @@ public class Database implements IDatabase {
 
     public void end(){
         ensureDbHelperIsReady();
-        getSQLiteDatabase().endTransaction();
+        try{
+            getSQLiteDatabase().endTransaction();
+        }
+        finally {
+            // other threads may have cached results before the transaction was committed
+            invalidateCache();
+        }
+    }
+
+    /**
+     * True if SQLite supports <code>INSERT .. ON CONFLICT DO UPDATE</code> (3.24.0 and up)
+     */
+    synchronized boolean isUpsertSupported(){
+        if(upsertSupported == null){
+            SQLiteStatement statement = getSQLiteDatabase().compileStatement("SELECT sqlite_version()");
+            try{
+                upsertSupported = compareVersion(statement.simpleQueryForString(), 3, 24) >= 0;
+            }
+            finally {
+                statement.close();
+            }
+        }
+        return upsertSupported;
+    }
+
+    /**
+     * Compares a version string (i.e: "3.22.0") to major.minor
+     */
+    static int compareVersion(String version, int major, int minor){
+        String[] parts = version.split("\\.");
+        try{
+            int compared = Integer.parseInt(parts[0]) - major;
+            if(compared == 0 && parts.length > 1) compared = Integer.parseInt(parts[1]) - minor;
+            else if(compared == 0) compared = -minor;
+            return compared;
+        }
+        catch (NumberFormatException e){
+            return -1;
+        }
     }
 
     void setForeignKeySupport(boolean on){
@@ -16,6 +16,7 @@
 package com.bingzer.android.dbv.internal;
 
 import com.bingzer.android.dbv.queries.IFunction;
+import com.bingzer.android.dbv.utils.Utils;
 
 import java.util.Locale;
 
@@ -26,8 +27,10 @@ class FunctionImpl implements IFunction {
 
     private double value;
     private final StringBuilder builder;
+    private final Object[] args;
 
-    FunctionImpl(String functionName, String tableName, String columnName, String condition){
+    FunctionImpl(String functionName, String tableName, String columnName, String condition, Object... args){
+        this.args = args;
         builder = new StringBuilder("SELECT ")
                 .append(functionName).append("(").append(columnName).append(") AS FN ")
                 .append(" FROM ").append(tableName);
@@ -36,17 +39,31 @@ class FunctionImpl implements IFunction {
             // append where if necessary
             if(!condition.toLowerCase(Locale.getDefault()).startsWith("where"))
                 builder.append(" WHERE ");
-            // safely prepare the where part
+            // arguments are bound when the query is executed
             builder.append(condition);
         }
     }
 
+    /**
+     * Function with a value that has been computed somewhere else
+     * (i.e: by an aggregate)
+     */
+    FunctionImpl(String functionName, String columnName, double value){
+        this.args = Utils.EMPTY_ARGS;
+        this.value = value;
+        this.builder = new StringBuilder(functionName).append("(").append(columnName).append(")");
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////
 
     public void setValue(double value){
         this.value = value;
     }
 
+    Object[] getArgs(){
+        return args;
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////
 
     @Override
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.internal;
+
+/**
+ * Helpers to express a set of ids as bound <code>IN (?,?,..)</code> clauses.
+ * SQLite only allows {@link #MAX_VARIABLES} bound variables per statement,
+ * so bigger sets are split into chunks.
+ * <p>
+ * The number of placeholders is rounded up to the next power of two (padded
+ * with the last id, which doesn't change the result of an <code>IN</code>) so that
+ * id sets of different sizes share the same sql and its compiled statement.
+ */
+final class IdSet {
+
+    /** SQLITE_MAX_VARIABLE_NUMBER (the default that Android is compiled with) */
+    static final int MAX_VARIABLES = 999;
+
+    private IdSet(){
+        // nothing
+    }
+
+    /**
+     * Returns the number of chunks needed for the specified number of ids
+     * @param length the number of ids
+     * @return the number of chunks
+     */
+    static int chunkCount(int length){
+        return (length + MAX_VARIABLES - 1) / MAX_VARIABLES;
+    }
+
+    /**
+     * Returns the <code>column IN (?,?,..)</code> clause for the chunk
+     * @param column the column name
+     * @param length the number of ids
+     * @param chunk the chunk index
+     * @return the clause
+     */
+    static String inClause(String column, int length, int chunk){
+        int size = placeholders(chunkSize(length, chunk));
+        StringBuilder builder = new StringBuilder(column.length() + size * 2 + 6);
+        builder.append(column).append(" IN (?");
+        for(int i = 1; i < size; i++){
+            builder.append(",?");
+        }
+        return builder.append(")").toString();
+    }
+
+    /**
+     * Returns the arguments to bind to the clause returned
+     * by {@link #inClause(String, int, int)}
+     * @param ids the ids
+     * @param chunk the chunk index
+     * @return the arguments
+     */
+    static Object[] chunkArgs(long[] ids, int chunk){
+        int offset = chunk * MAX_VARIABLES;
+        int count = chunkSize(ids.length, chunk);
+        Object[] args = new Object[placeholders(count)];
+        for(int i = 0; i < args.length; i++){
+            args[i] = ids[offset + Math.min(i, count - 1)];
+        }
+        return args;
+    }
+
+    private static int chunkSize(int length, int chunk){
+        return Math.min(MAX_VARIABLES, length - chunk * MAX_VARIABLES);
+    }
+
+    private static int placeholders(int count){
+        int size = Integer.highestOneBit(count);
+        if(size < count) size <<= 1;
+        return Math.min(size, MAX_VARIABLES);
+    }
+}
@@ -16,6 +16,7 @@
 package com.bingzer.android.dbv.internal;
 
 import android.content.ContentValues;
+import android.database.sqlite.SQLiteDatabase;
 
 import com.bingzer.android.dbv.queries.IQuery;
 import com.bingzer.android.dbv.queries.InsertInto;
@@ -26,8 +27,12 @@ import com.bingzer.android.dbv.utils.ContentValuesUtils;
 */
 class InsertIntoImpl extends InsertImpl implements InsertInto {
 
+    // same order as SQLiteDatabase.CONFLICT_*
+    private static final String[] CONFLICT_CLAUSES = {"", " OR ROLLBACK", " OR ABORT", " OR FAIL", " OR IGNORE", " OR REPLACE"};
+
     private ContentSet<InsertIntoImpl> query;
     private String[] columnNames;
+    private int conflictAlgorithm = SQLiteDatabase.CONFLICT_NONE;
 
     public InsertIntoImpl(ContentSet<InsertIntoImpl> query, String... columnNames){
         this.query = query;
@@ -45,4 +50,47 @@ class InsertIntoImpl extends InsertImpl implements InsertInto {
 
         return this;
     }
+
+    /**
+     * Inserts one row at a time
+     */
+    @Override
+    public IQuery<long[]> values(Object[]... rows) {
+        long[] range = { -1, -1 };
+        for(Object[] row : rows){
+            if(row.length != columnNames.length)
+                throw new IllegalArgumentException("Expected " + columnNames.length + " values, found " + row.length);
+
+            long id = val(row).query();
+            if(id < 0) continue;
+            if(range[0] < 0) range[0] = id;
+            range[1] = id;
+        }
+
+        QueryImpl<long[]> query = new QueryImpl<long[]>();
+        query.setValue(range);
+        return query;
+    }
+
+    @Override
+    public InsertInto onConflict(int conflictAlgorithm) {
+        getConflictClause(conflictAlgorithm);
+        this.conflictAlgorithm = conflictAlgorithm;
+        return this;
+    }
+
+    int getConflictAlgorithm(){
+        return conflictAlgorithm;
+    }
+
+    /**
+     * Returns the clause that follows 'INSERT' (i.e: " OR REPLACE")
+     * @param conflictAlgorithm one of the <code>SQLiteDatabase.CONFLICT_*</code>
+     * @return the clause, empty for <code>CONFLICT_NONE</code>
+     */
+    static String getConflictClause(int conflictAlgorithm){
+        if(conflictAlgorithm < 0 || conflictAlgorithm >= CONFLICT_CLAUSES.length)
+            throw new IllegalArgumentException("Unknown conflict algorithm: " + conflictAlgorithm);
+        return CONFLICT_CLAUSES[conflictAlgorithm];
+    }
 }
@@ -45,6 +45,22 @@ abstract class JoinImpl extends SelectImpl implements InnerJoin, LeftJoin, Outer
                     .append(tableNameToJoin).append(" ON ").append(onClause);
     }
 
+    /**
+     * The result depends on the joined table too
+     */
+    @Override
+    boolean isCacheable() {
+        return false;
+    }
+
+    /**
+     * rowid is ambiguous once joined
+     */
+    @Override
+    boolean isChunkable(String sql) {
+        return false;
+    }
+
     @Override
     public Select select(int top, String condition) {
         consume(table.select(top, condition));
@@ -202,5 +218,8 @@ abstract class JoinImpl extends SelectImpl implements InnerJoin, LeftJoin, Outer
         groupByString = ((SelectImpl)select).groupByString;
         havingString = ((SelectImpl)select).havingString;
         whereString = ((SelectImpl)select).whereString;
+        whereArgs = ((SelectImpl)select).whereArgs;
+        havingArgs = ((SelectImpl)select).havingArgs;
+        idTable = ((SelectImpl)select).idTable;
     }
 }
\ No newline at end of file
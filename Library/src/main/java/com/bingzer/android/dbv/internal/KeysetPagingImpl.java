@@ -0,0 +1,249 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.internal;
+
+import android.database.Cursor;
+import android.os.Build;
+
+import com.bingzer.android.dbv.utils.CursorUtils;
+import com.bingzer.android.dbv.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keyset (seek) paging. The key of the last row of every page that has
+ * been queried is remembered so that the next page can be selected with
+ * <code>WHERE key &gt; ?</code> instead of <code>OFFSET</code>.
+ * The key is made of the order by terms and the primary key (to break ties).
+ * Pages whose previous key is not known are selected using <code>OFFSET</code>.
+ */
+class KeysetPagingImpl extends PagingImpl {
+
+    private static final String KEY_ALIAS = "_PagingKey";
+
+    private final String[] keys;
+    private final boolean[] descending;
+    // boundaries[n] is the key of the last row of page n - 1
+    private final List<Object[]> boundaries = new ArrayList<Object[]>();
+
+    KeysetPagingImpl(SelectImpl select, int rowLimit){
+        super(select, rowLimit);
+
+        List<String> terms = splitOrderBy(select.orderByString);
+        String idColumn = getIdColumn(select.table);
+        if(terms.isEmpty() || !isIdColumn(terms.get(terms.size() - 1), select.table, idColumn)){
+            terms.add(idColumn);
+        }
+
+        keys = new String[terms.size()];
+        descending = new boolean[terms.size()];
+        for(int i = 0; i < keys.length; i++){
+            String term = terms.get(i);
+            String upper = term.toUpperCase(Locale.US);
+            if(upper.endsWith(" DESC")){
+                descending[i] = true;
+                term = term.substring(0, term.length() - 5).trim();
+            }
+            else if(upper.endsWith(" ASC")){
+                term = term.substring(0, term.length() - 4).trim();
+            }
+            keys[i] = term;
+        }
+    }
+
+    @Override
+    public Cursor query() {
+        if(!isSeekable()) return super.query();
+
+        int pageNumber = getPageNumber();
+        Object[] boundary = getBoundary(pageNumber);
+        Cursor cursor = select.rawQuery(generateSql(boundary), Utils.concatArgs(select.whereArgs, getSeekArgs(boundary)));
+        rememberBoundary(pageNumber + 1, cursor);
+        return cursor;
+    }
+
+    @Override
+    String generateSql(boolean asRowCount) {
+        if(asRowCount || !isSeekable()) return super.generateSql(asRowCount);
+        return generateSql(getBoundary(getPageNumber()));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Selects the page after <code>boundary</code>, or the current page
+     * using <code>OFFSET</code> if <code>boundary</code> is null
+     */
+    private String generateSql(Object[] boundary){
+        StringBuilder sql = new StringBuilder();
+        sql.append(select.selectString).append(select.columnString);
+        for(int i = 0; i < keys.length; i++){
+            sql.append(", ").append(keys[i]).append(" AS ").append(KEY_ALIAS).append(i);
+        }
+        sql.append(Database.SPACE).append(select.fromString).append(Database.SPACE);
+        // join builder
+        if(select instanceof JoinImpl){
+            sql.append(((JoinImpl)select).joinBuilder).append(Database.SPACE);
+        }
+
+        // where
+        String whereClause = getWhereClause();
+        if(boundary != null){
+            sql.append(" WHERE ");
+            if(whereClause != null) sql.append("(").append(whereClause).append(") AND ");
+            appendSeekClause(sql);
+        }
+        else if(whereClause != null){
+            sql.append(" WHERE ").append(whereClause);
+        }
+
+        // order by the key
+        sql.append(" ORDER BY ");
+        for(int i = 0; i < keys.length; i++){
+            if(i > 0) sql.append(",");
+            sql.append(keys[i]).append(descending[i] ? " DESC" : " ASC");
+        }
+
+        sql.append(" LIMIT ").append(rowLimit);
+        if(boundary == null) sql.append(" OFFSET ").append(getOffset());
+
+        return sql.toString();
+    }
+
+    /**
+     * (k0 &gt; ?) OR (k0 = ? AND k1 &gt; ?) OR ...
+     * Row values can't be used, they need SQLite 3.15.
+     * The boundary is never null. Nulls sort first, so they come after
+     * the boundary only in a DESC term: (k0 &lt; ? OR k0 IS NULL)
+     */
+    private void appendSeekClause(StringBuilder sql){
+        sql.append("(");
+        for(int i = 0; i < keys.length; i++){
+            if(i > 0) sql.append(" OR ");
+            sql.append("(");
+            for(int j = 0; j < i; j++){
+                sql.append(keys[j]).append(" = ? AND ");
+            }
+            if(descending[i])
+                sql.append("(").append(keys[i]).append(" < ? OR ").append(keys[i]).append(" IS NULL)");
+            else
+                sql.append(keys[i]).append(" > ?");
+            sql.append(")");
+        }
+        sql.append(")");
+    }
+
+    private Object[] getSeekArgs(Object[] boundary){
+        if(boundary == null) return Utils.EMPTY_ARGS;
+
+        Object[] args = new Object[keys.length * (keys.length + 1) / 2];
+        int index = 0;
+        for(int i = 0; i < keys.length; i++){
+            for(int j = 0; j <= i; j++){
+                args[index++] = boundary[j];
+            }
+        }
+        return args;
+    }
+
+    private Object[] getBoundary(int pageNumber){
+        if(pageNumber == 0 || pageNumber >= boundaries.size()) return null;
+        return boundaries.get(pageNumber);
+    }
+
+    /**
+     * Reads the key of the last row. The cursor is moved back
+     * before the first row
+     */
+    private void rememberBoundary(int pageNumber, Cursor cursor){
+        if(!cursor.moveToLast()) return;
+
+        Object[] boundary = new Object[keys.length];
+        int first = cursor.getColumnCount() - keys.length;
+        for(int i = 0; i < keys.length; i++){
+            boundary[i] = CursorUtils.getValueFromCursor(cursor, first + i);
+            // null is never greater or less than anything
+            if(boundary[i] == null) {
+                boundary = null;
+                break;
+            }
+        }
+        cursor.moveToPosition(-1);
+
+        while(boundaries.size() <= pageNumber) boundaries.add(null);
+        boundaries.set(pageNumber, boundary);
+    }
+
+    /**
+     * Returns the where clause without 'WHERE', null if there's none
+     */
+    private String getWhereClause(){
+        String whereClause = select.whereString.toString().trim();
+        if(whereClause.toLowerCase(Locale.getDefault()).startsWith("where"))
+            whereClause = whereClause.substring(5).trim();
+        return whereClause.length() == 0 ? null : whereClause;
+    }
+
+    /**
+     * Distinct, group by and having change what a row is.
+     * Cursor.getType() (to read the key) needs honeycomb
+     */
+    private boolean isSeekable(){
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB &&
+                select.groupByString == null && select.havingString == null &&
+                select.selectString.indexOf("DISTINCT") < 0;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Splits the order by terms by commas that are not within parentheses
+     */
+    private static List<String> splitOrderBy(StringBuilder orderByString){
+        List<String> terms = new ArrayList<String>();
+        if(orderByString == null) return terms;
+
+        String orderBy = orderByString.toString().trim();
+        if(orderBy.toUpperCase(Locale.US).startsWith("ORDER BY")) orderBy = orderBy.substring(8);
+
+        int depth = 0;
+        int start = 0;
+        for(int i = 0; i <= orderBy.length(); i++){
+            char c = i < orderBy.length() ? orderBy.charAt(i) : ',';
+            if(c == '(') depth++;
+            else if(c == ')') depth--;
+            else if(c == ',' && depth == 0){
+                String term = orderBy.substring(start, i).trim();
+                if(term.length() > 0) terms.add(term);
+                start = i + 1;
+            }
+        }
+        return terms;
+    }
+
+    private static String getIdColumn(Table table){
+        String alias = table.getAlias();
+        String owner = alias != null && alias.length() > 0 ? alias : table.getName();
+        return owner + "." + table.getPrimaryKeyColumn();
+    }
+
+    private static boolean isIdColumn(String term, Table table, String idColumn){
+        String column = term.replaceAll("(?i)\\s+(ASC|DESC)$", "");
+        return column.equalsIgnoreCase(idColumn) || column.equalsIgnoreCase(table.getPrimaryKeyColumn());
+    }
+}
@@ -21,7 +21,11 @@ import com.bingzer.android.dbv.queries.Max;
 * Created by Ricky on 4/26/2014.
 */
 class MaxImpl extends FunctionImpl implements Max {
-    public MaxImpl(String tableName, String columnName, String condition){
-        super("MAX", tableName, columnName, condition);
+    public MaxImpl(String tableName, String columnName, String condition, Object... args){
+        super("MAX", tableName, columnName, condition, args);
+    }
+
+    MaxImpl(String columnName, double value){
+        super("MAX", columnName, value);
     }
 }
@@ -21,7 +21,11 @@ import com.bingzer.android.dbv.queries.Min;
 * Created by Ricky on 4/26/2014.
 */
 class MinImpl extends FunctionImpl implements Min {
-    public MinImpl(String tableName, String columnName, String condition){
-        super("MIN", tableName, columnName, condition);
+    public MinImpl(String tableName, String columnName, String condition, Object... args){
+        super("MIN", tableName, columnName, condition, args);
+    }
+
+    MinImpl(String columnName, double value){
+        super("MIN", columnName, value);
     }
 }
@@ -16,21 +16,34 @@
 package com.bingzer.android.dbv.internal;
 
 import android.database.Cursor;
+import android.os.Build;
 
+import com.bingzer.android.dbv.ColumnarResult;
 import com.bingzer.android.dbv.IEntity;
 import com.bingzer.android.dbv.IEntityList;
+import com.bingzer.android.dbv.ILazyEntityList;
+import com.bingzer.android.dbv.RowReader;
+import com.bingzer.android.dbv.RowStream;
 import com.bingzer.android.dbv.queries.ISequence;
 import com.bingzer.android.dbv.queries.Paging;
 import com.bingzer.android.dbv.utils.EntityUtils;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
 * Created by Ricky on 4/26/2014.
 */
 class PagingImpl extends QueryImpl<Cursor> implements Paging {
 
-    private final int rowLimit;
-    private final SelectImpl select;
+    final int rowLimit;
+    final SelectImpl select;
     private int pageNumber = 0;
+    // the last row count
+    private long countVersion = -1;
+    private String countSql;
+    private Object[] countArgs;
+    private int rowCount;
 
     public PagingImpl(SelectImpl select, int rowLimit){
         this.select = select;
@@ -66,17 +79,33 @@ class PagingImpl extends QueryImpl<Cursor> implements Paging {
 
     @Override
     public int getTotalPage() {
-        // we can't count row when orderBy or having is included
-        // TODO: there's gotta be a way to do this
-        if(select.groupByString != null || select.havingString != null)
-            throw new UnsupportedOperationException("Cannot count row when querying using 'GroupBy' or 'Having'");
+        return (int) Math.ceil(getRowCount() / (float) rowLimit);
+    }
 
-        float row = -1;
+    @Override
+    public int getEstimatedTotalPage() {
+        long row = isWholeTable() ? select.table.estimateRowCount() : -1;
+        if(row < 0) return getTotalPage();
 
+        return (int) Math.ceil(row / (float) rowLimit);
+    }
+
+    /**
+     * Counts the rows. The count is kept until the table is written to
+     * (see {@link ResultCache#getVersion()}), if the count only depends on the table.
+     */
+    int getRowCount(){
         String sql = generateSql(true);
+        Object[] args = select.getArgs();
+        long version = select.table.cache.getVersion();
+        boolean cacheable = isCountCacheable();
+        if(cacheable && version == countVersion && sql.equals(countSql) && Arrays.equals(args, countArgs))
+            return rowCount;
+
+        int row = 0;
         Cursor cursor = null;
         try{
-            cursor = select.table.raw(sql).query();
+            cursor = select.rawQuery(sql, args);
             if(cursor.moveToFirst()){
                 row = cursor.getInt(0);
             }
@@ -85,13 +114,16 @@ class PagingImpl extends QueryImpl<Cursor> implements Paging {
             if(cursor != null) cursor.close();
         }
 
-        // calculate total page
-        return  (int) Math.ceil(row / (float) rowLimit);
+        countVersion = cacheable ? version : -1;
+        countSql = sql;
+        countArgs = args;
+        rowCount = row;
+        return row;
     }
 
     @Override
     public Cursor query(){
-        return select.table.raw(toString()).query();
+        return select.rawQuery(toString(), select.getArgs());
     }
 
     @Override
@@ -135,6 +167,64 @@ class PagingImpl extends QueryImpl<Cursor> implements Paging {
         query(pageNumber, entityList);
     }
 
+    @Override
+    public <E extends IEntity> void query(E entity, ISequence<E> sequence) {
+        final Cursor cursor = query();
+        try{
+            EntityUtils.mapEntitySequenceFromCursor(select.table, entity, cursor, sequence);
+        }
+        finally {
+            cursor.close();
+        }
+    }
+
+    @Override
+    public <E extends IEntity> ILazyEntityList<E> queryLazy(IEntityList<E> entityList) {
+        return queryLazy(entityList, ILazyEntityList.DEFAULT_WINDOW_SIZE);
+    }
+
+    @Override
+    public <E extends IEntity> ILazyEntityList<E> queryLazy(IEntityList<E> entityList, int windowSize) {
+        return EntityUtils.newLazyEntityList(select.table, entityList, query(), windowSize);
+    }
+
+    @Override
+    public ColumnarResult queryColumns() {
+        return queryColumns(new ColumnarResult());
+    }
+
+    @Override
+    public ColumnarResult queryColumns(ColumnarResult result) {
+        final Cursor cursor = query();
+        try{
+            return result.read(cursor);
+        }
+        finally {
+            cursor.close();
+        }
+    }
+
+    @Override
+    public RowStream stream() {
+        return new RowStream(query());
+    }
+
+    @Override
+    public RowStream stream(int prefetchRows) {
+        return select.stream(query(), prefetchRows);
+    }
+
+    @Override
+    public <T> List<T> queryAs(RowReader<T> reader) {
+        final Cursor cursor = query();
+        try{
+            return reader.readAll(cursor);
+        }
+        finally {
+            cursor.close();
+        }
+    }
+
     @Override
     public String toString(){
         return generateSql(false);
@@ -143,11 +233,13 @@ class PagingImpl extends QueryImpl<Cursor> implements Paging {
     String generateSql(boolean asRowCount){
         StringBuilder sql = new StringBuilder();
 
+        // the select is counted as a subquery
+        if(asRowCount) sql.append("SELECT COUNT(*) AS FN FROM (");
+
         sql.append(select.selectString).append(Database.SPACE);
 
         // columns
-        if(asRowCount) sql.append(" COUNT(*) AS FN ");
-        else sql.append(select.columnString).append(Database.SPACE);
+        sql.append(select.columnString).append(Database.SPACE);
         // from
         sql.append(select.fromString).append(Database.SPACE);
         // join builder
@@ -157,17 +249,18 @@ class PagingImpl extends QueryImpl<Cursor> implements Paging {
         // where
         sql.append(Database.SPACE).append(select.whereString);
 
-        // group by + having (Only when not to count)
+        // group by + having
         if(select.groupByString != null) sql.append(Database.SPACE).append(select.groupByString);
         if(select.havingString != null) sql.append(Database.SPACE).append(select.havingString);
 
-        // order by
-        if(select.orderByString != null) sql.append(Database.SPACE).append(select.orderByString);
-
-        // pagination only when it's not a row count
+        // order by + pagination only when it's not a row count
         if(!asRowCount){
+            if(select.orderByString != null) sql.append(Database.SPACE).append(select.orderByString);
             sql.append(" LIMIT ").append(rowLimit).append(" OFFSET ").append(getOffset());
         }
+        else {
+            sql.append(")");
+        }
 
         return sql.toString();
     }
@@ -176,6 +269,25 @@ class PagingImpl extends QueryImpl<Cursor> implements Paging {
         return pageNumber * rowLimit;
     }
 
+    /**
+     * The version is only reliable when the count depends on this table alone:
+     * not a view, no join and no subquery. Updates and deletes before honeycomb
+     * don't go through the statement cache, so they don't change the version
+     */
+    private boolean isCountCacheable(){
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB &&
+                !(select.table instanceof View) && select.isCacheable();
+    }
+
+    /**
+     * True if every row of the table is selected
+     */
+    private boolean isWholeTable(){
+        return !(select instanceof JoinImpl) && select.whereString.length() == 0 &&
+                select.groupByString == null && select.havingString == null &&
+                select.limitString.length() == 0;
+    }
+
     void ensurePageNumberValid(int pageNumber){
         if(pageNumber < 0)
             throw new IllegalArgumentException("PageNumber must be over 0");
@@ -0,0 +1,202 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.internal;
+
+import android.database.Cursor;
+
+import com.bingzer.android.dbv.ColumnarResult;
+import com.bingzer.android.dbv.IEntity;
+import com.bingzer.android.dbv.IEntityList;
+import com.bingzer.android.dbv.ILazyEntityList;
+import com.bingzer.android.dbv.RowReader;
+import com.bingzer.android.dbv.RowStream;
+import com.bingzer.android.dbv.queries.ISequence;
+import com.bingzer.android.dbv.queries.PreparedSelect;
+import com.bingzer.android.dbv.utils.CursorUtils;
+import com.bingzer.android.dbv.utils.EntityUtils;
+
+import java.util.List;
+
+/**
+ * Implementation of {@link PreparedSelect}.
+ * The sql is taken from the select once, only the arguments change.
+ */
+class PreparedSelectImpl implements PreparedSelect {
+
+    private final SelectImpl select;
+    private final Table table;
+    private final String sql;
+    private final Object[] args;
+
+    PreparedSelectImpl(SelectImpl select){
+        this.select = select;
+        this.table = select.table;
+        this.sql = select.toString();
+        // copy so that binding doesn't touch the select's arguments
+        this.args = select.getArgs().clone();
+    }
+
+    @Override
+    public PreparedSelect bind(Object... values) {
+        for(int i = 0; i < args.length; i++){
+            args[i] = (values != null && i < values.length) ? values[i] : null;
+        }
+        return this;
+    }
+
+    @Override
+    public int getArgCount() {
+        return args.length;
+    }
+
+    @Override
+    public Cursor query() {
+        return select.rawQuery(sql, args);
+    }
+
+    @Override
+    public void query(IEntity entity) {
+        final Cursor cursor = query();
+        try{
+            if(cursor.moveToNext()){
+                EntityUtils.mapEntityFromCursor(table, entity, cursor);
+            }
+        }
+        finally {
+            cursor.close();
+        }
+    }
+
+    @Override
+    public <E extends IEntity> void query(IEntityList<E> entityList) {
+        final Cursor cursor = query();
+        try{
+            EntityUtils.mapEntityListFromCursor(table, entityList, cursor);
+        }
+        finally {
+            cursor.close();
+        }
+    }
+
+    @Override
+    public void query(ISequence<Cursor> sequence) {
+        final Cursor cursor = query();
+        try{
+            while(cursor.moveToNext()){
+                if(!sequence.next(cursor))
+                    break;
+            }
+        }
+        finally {
+            cursor.close();
+        }
+    }
+
+    @Override
+    public <E extends IEntity> void query(E entity, ISequence<E> sequence) {
+        final Cursor cursor = query();
+        try{
+            EntityUtils.mapEntitySequenceFromCursor(table, entity, cursor, sequence);
+        }
+        finally {
+            cursor.close();
+        }
+    }
+
+    @Override
+    public <E extends IEntity> ILazyEntityList<E> queryLazy(IEntityList<E> entityList) {
+        return queryLazy(entityList, ILazyEntityList.DEFAULT_WINDOW_SIZE);
+    }
+
+    @Override
+    public <E extends IEntity> ILazyEntityList<E> queryLazy(IEntityList<E> entityList, int windowSize) {
+        return EntityUtils.newLazyEntityList(table, entityList, query(), windowSize);
+    }
+
+    @Override
+    public ColumnarResult queryColumns() {
+        return queryColumns(new ColumnarResult());
+    }
+
+    @Override
+    public ColumnarResult queryColumns(ColumnarResult result) {
+        final Cursor cursor = query();
+        try{
+            return result.read(cursor);
+        }
+        finally {
+            cursor.close();
+        }
+    }
+
+    @Override
+    public RowStream stream() {
+        return new RowStream(query());
+    }
+
+    @Override
+    public RowStream stream(int prefetchRows) {
+        return select.stream(query(), prefetchRows);
+    }
+
+    @Override
+    public <T> List<T> queryAs(RowReader<T> reader) {
+        final Cursor cursor = query();
+        try{
+            return reader.readAll(cursor);
+        }
+        finally {
+            cursor.close();
+        }
+    }
+
+    @Override
+    public <T> T query(int columnIndex) {
+        T value = null;
+        final Cursor cursor = query();
+        try{
+            if(cursor.moveToNext()) {
+                value = CursorUtils.getValueFromCursor(cursor, columnIndex);
+            }
+        }
+        finally {
+            cursor.close();
+        }
+
+        return value;
+    }
+
+    @Override
+    public <T> T query(String columnName) {
+        T value = null;
+        final Cursor cursor = query();
+        try{
+            if(cursor.moveToNext()) {
+                value = CursorUtils.getValueFromCursor(cursor, columnName);
+            }
+        }
+        finally {
+            cursor.close();
+        }
+
+        return value;
+    }
+
+    @Override
+    public String toString(){
+        return sql;
+    }
+}
@@ -0,0 +1,265 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.internal;
+
+import android.annotation.TargetApi;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.os.Build;
+
+import com.bingzer.android.dbv.ITable;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read-through LRU cache of query results of a single table keyed by
+ * their sql and arguments. Disabled by default.
+ * <p>
+ * Every write to the table bumps the version and clears the cache.
+ * A result is only cached if the version has not changed while it was being read,
+ * so a concurrent write never leaves a stale result behind.
+ * Results are not read from or written to the cache while the calling thread is in a transaction
+ * (the transaction may be rolled back). The cache is not used before honeycomb.
+ * <p>
+ * Cursors are kept as immutable snapshots (rows copied to memory), every hit returns a new
+ * <code>MatrixCursor</code>. Results with more than {@link #MAX_ROWS} rows are not cached.
+ */
+class ResultCache implements ITable.Cache {
+
+    static final int MAX_ROWS = 1000;
+    // cached null value
+    private static final Object NULL = new Object();
+
+    private final Database db;
+    private final Map<Key, Object> entries;
+    private int maxSize = 0;
+    private long version = 0;
+    private long hitCount = 0;
+    private long missCount = 0;
+
+    ResultCache(Database db){
+        this.db = db;
+        this.entries = new LinkedHashMap<Key, Object>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Override
+    public synchronized void setMaxSize(int maxSize) {
+        if(maxSize < 0) throw new IllegalArgumentException("Max size must be 0 or over");
+        this.maxSize = maxSize;
+        if(maxSize == 0) entries.clear();
+        else while(entries.size() > maxSize) {
+            entries.remove(entries.keySet().iterator().next());
+        }
+    }
+
+    @Override
+    public synchronized int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    @Override
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    @Override
+    public synchronized void invalidate() {
+        version++;
+        entries.clear();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Returns true if the results can be read from and written to the cache.
+     * Always false before honeycomb (<code>Cursor.getType()</code> is needed to copy the rows)
+     */
+    boolean isEnabled(){
+        if(Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB) return false;
+        synchronized (this){
+            if(maxSize == 0) return false;
+        }
+        return !db.sqLiteDb.inTransaction();
+    }
+
+    /**
+     * Returns the current version. Must be taken before reading the result to cache
+     */
+    synchronized long getVersion(){
+        return version;
+    }
+
+    /**
+     * Returns the cached value
+     * @param sql the sql
+     * @param args the arguments
+     * @param value receives the cached value, <code>value[0]</code> is untouched if not cached
+     * @return true if cached
+     */
+    synchronized boolean get(String sql, Object[] args, Object[] value){
+        Object cached = entries.get(new Key(sql, args));
+        if(cached == null || cached instanceof Snapshot){
+            missCount++;
+            return false;
+        }
+
+        hitCount++;
+        value[0] = cached == NULL ? null : cached;
+        return true;
+    }
+
+    /**
+     * Caches the value (maybe null) if the version has not changed since
+     */
+    synchronized void put(String sql, Object[] args, Object value, long version){
+        if(this.version == version && maxSize > 0){
+            entries.put(new Key(sql, args), value == null ? NULL : value);
+        }
+    }
+
+    /**
+     * Returns a new cursor of the cached result, null if not cached
+     */
+    synchronized Cursor getCursor(String sql, Object[] args){
+        Object cached = entries.get(new Key(sql, args));
+        if(!(cached instanceof Snapshot)){
+            missCount++;
+            return null;
+        }
+
+        hitCount++;
+        return ((Snapshot) cached).newCursor();
+    }
+
+    /**
+     * Caches the cursor if the version has not changed since. The cursor is consumed and
+     * closed, a snapshot cursor is returned instead. If the cursor has too many rows,
+     * it's returned as is
+     */
+    Cursor putCursor(String sql, Object[] args, Cursor cursor, long version){
+        if(cursor.getCount() > MAX_ROWS) return cursor;
+
+        Snapshot snapshot;
+        try{
+            snapshot = new Snapshot(cursor);
+        }
+        finally {
+            cursor.close();
+        }
+
+        synchronized (this){
+            if(this.version == version && maxSize > 0){
+                entries.put(new Key(sql, args), snapshot);
+            }
+        }
+
+        return snapshot.newCursor();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final class Key {
+        final String sql;
+        final Object[] args;
+        final int hash;
+
+        Key(String sql, Object[] args){
+            this.sql = sql;
+            this.args = args == null ? new Object[0] : args.clone();
+            this.hash = 31 * sql.hashCode() + Arrays.deepHashCode(this.args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return hash == key.hash && sql.equals(key.sql) && Arrays.deepEquals(args, key.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Rows copied from a cursor
+     */
+    private static final class Snapshot {
+        final String[] columnNames;
+        final Object[][] rows;
+
+        Snapshot(Cursor cursor){
+            columnNames = cursor.getColumnNames();
+            rows = new Object[cursor.getCount()][];
+
+            int row = 0;
+            while(cursor.moveToNext()){
+                Object[] values = new Object[columnNames.length];
+                for(int i = 0; i < values.length; i++){
+                    values[i] = getValue(cursor, i);
+                }
+                rows[row++] = values;
+            }
+        }
+
+        Cursor newCursor(){
+            MatrixCursor cursor = new MatrixCursor(columnNames, rows.length);
+            for(Object[] row : rows){
+                // blobs are shared, copy them so the snapshot stays immutable
+                Object[] values = row.clone();
+                for(int i = 0; i < values.length; i++){
+                    if(values[i] instanceof byte[]) values[i] = ((byte[]) values[i]).clone();
+                }
+                cursor.addRow(values);
+            }
+            return cursor;
+        }
+
+        @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+        private static Object getValue(Cursor cursor, int index){
+            switch (cursor.getType(index)){
+                case Cursor.FIELD_TYPE_NULL:
+                    return null;
+                case Cursor.FIELD_TYPE_INTEGER:
+                    return cursor.getLong(index);
+                case Cursor.FIELD_TYPE_FLOAT:
+                    return cursor.getDouble(index);
+                case Cursor.FIELD_TYPE_BLOB:
+                    return cursor.getBlob(index);
+                default:
+                    return cursor.getString(index);
+            }
+        }
+    }
+}
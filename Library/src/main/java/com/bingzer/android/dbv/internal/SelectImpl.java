@@ -17,8 +17,12 @@ package com.bingzer.android.dbv.internal;
 
 import android.database.Cursor;
 
+import com.bingzer.android.dbv.ColumnarResult;
 import com.bingzer.android.dbv.IEntity;
 import com.bingzer.android.dbv.IEntityList;
+import com.bingzer.android.dbv.ILazyEntityList;
+import com.bingzer.android.dbv.RowReader;
+import com.bingzer.android.dbv.RowStream;
 import com.bingzer.android.dbv.queries.ISequence;
 import com.bingzer.android.dbv.queries.GroupBy;
 import com.bingzer.android.dbv.queries.Having;
@@ -28,13 +32,19 @@ import com.bingzer.android.dbv.queries.Paging;
 import com.bingzer.android.dbv.queries.Select;
 import com.bingzer.android.dbv.utils.EntityUtils;
 
+import java.util.List;
 import java.util.Locale;
+import java.util.regex.Pattern;
 
 /**
 * Created by Ricky on 4/26/2014.
 */
 abstract class SelectImpl extends QueryImpl<Cursor> implements Select, Select.OrderBy, GroupBy, Having {
 
+    /** <code>*</code> or column names (maybe qualified or aliased), no expression */
+    private static final Pattern PLAIN_COLUMNS = Pattern.compile(
+            "\\s*(\\*|[\\w.]+(\\s+AS\\s+\\w+)?)(\\s*,\\s*[\\w.]+(\\s+AS\\s+\\w+)?)*\\s*", Pattern.CASE_INSENSITIVE);
+
     protected final Table table;
     protected StringBuilder selectString;
     protected StringBuilder columnString;
@@ -44,6 +54,10 @@ abstract class SelectImpl extends QueryImpl<Cursor> implements Select, Select.Or
     protected StringBuilder groupByString;
     protected StringBuilder havingString;
     protected StringBuilder whereString;
+    protected Object[] whereArgs = Utils.EMPTY_ARGS;
+    protected Object[] havingArgs = Utils.EMPTY_ARGS;
+    protected TempIdTable idTable;
+    protected int windowSize = -1;
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
@@ -77,8 +91,9 @@ abstract class SelectImpl extends QueryImpl<Cursor> implements Select, Select.Or
             // append where if necessary
             if(!whereClause.toLowerCase(Locale.getDefault()).startsWith("where"))
                 whereString.append(" WHERE ");
-            // safely prepare the where part
-            whereString.append(Utils.bindArgs(whereClause, args));
+            // arguments are bound when the query is executed
+            whereString.append(whereClause);
+            whereArgs = Utils.concatArgs(whereArgs, Utils.normalizeArgs(whereClause, args));
         }
         return this;
     }
@@ -98,6 +113,13 @@ abstract class SelectImpl extends QueryImpl<Cursor> implements Select, Select.Or
         return this;
     }
 
+    @Override
+    public Select windowSize(int bytes) {
+        if(bytes < 0) throw new IllegalArgumentException("Window size must be 0 or greater");
+        windowSize = bytes;
+        return this;
+    }
+
     @Override
     public OrderBy orderBy(String... columns) {
         if(orderByString == null) orderByString = new StringBuilder();
@@ -138,16 +160,79 @@ abstract class SelectImpl extends QueryImpl<Cursor> implements Select, Select.Or
     @SuppressWarnings("unchecked")
     public <E extends IEntity> void query(IEntityList<E> entityList) {
         final Cursor cursor = query();
-        EntityUtils.mapEntityListFromCursor(table, entityList, query());
+        EntityUtils.mapEntityListFromCursor(table, entityList, cursor);
 
         cursor.close();
     }
 
+    @Override
+    public <E extends IEntity> void query(E entity, ISequence<E> sequence) {
+        final Cursor cursor = query();
+        try{
+            EntityUtils.mapEntitySequenceFromCursor(table, entity, cursor, sequence);
+        }
+        finally {
+            cursor.close();
+        }
+    }
+
+    @Override
+    public <E extends IEntity> ILazyEntityList<E> queryLazy(IEntityList<E> entityList) {
+        return queryLazy(entityList, ILazyEntityList.DEFAULT_WINDOW_SIZE);
+    }
+
+    @Override
+    public <E extends IEntity> ILazyEntityList<E> queryLazy(IEntityList<E> entityList, int windowSize) {
+        return EntityUtils.newLazyEntityList(table, entityList, query(), windowSize);
+    }
+
+    @Override
+    public ColumnarResult queryColumns() {
+        return queryColumns(new ColumnarResult());
+    }
+
+    @Override
+    public ColumnarResult queryColumns(ColumnarResult result) {
+        final Cursor cursor = query();
+        try{
+            return result.read(cursor);
+        }
+        finally {
+            cursor.close();
+        }
+    }
+
+    @Override
+    public RowStream stream() {
+        return new RowStream(query());
+    }
+
+    @Override
+    public RowStream stream(int prefetchRows) {
+        return stream(query(), prefetchRows);
+    }
+
+    @Override
+    public <T> List<T> queryAs(RowReader<T> reader) {
+        final Cursor cursor = query();
+        try{
+            return reader.readAll(cursor);
+        }
+        finally {
+            cursor.close();
+        }
+    }
+
     @Override
     public Paging paging(int row) {
         return new PagingImpl(this, row);
     }
 
+    @Override
+    public Paging keysetPaging(int row) {
+        return new KeysetPagingImpl(this, row);
+    }
+
     @Override
     public GroupBy groupBy(String... columns) {
         if(groupByString == null) groupByString = new StringBuilder();
@@ -168,8 +253,10 @@ abstract class SelectImpl extends QueryImpl<Cursor> implements Select, Select.Or
     public Having having(String clause, Object... args) {
         if(havingString == null) havingString = new StringBuilder();
         else havingString.delete(0, havingString.length());
+        havingArgs = Utils.EMPTY_ARGS;
         if(clause != null){
-            havingString.append("HAVING ").append(Utils.bindArgs(clause, args));
+            havingString.append("HAVING ").append(clause);
+            havingArgs = Utils.normalizeArgs(clause, args);
         }
 
         return this;
@@ -199,6 +286,77 @@ abstract class SelectImpl extends QueryImpl<Cursor> implements Select, Select.Or
         return value;
     }
 
+    /**
+     * Returns the arguments to bind in the order of their placeholders
+     * in {@link #toString()}
+     * @return the arguments
+     */
+    Object[] getArgs(){
+        return Utils.concatArgs(whereArgs, havingArgs);
+    }
+
+    /**
+     * Runs the sql. If this select joins against a temporary id table,
+     * the table is kept until the returned cursor is closed.
+     * Otherwise the result may come from the table's cache.
+     * When a window size is set but the platform can't size the window,
+     * a plain select is fetched in chunks (see {@link ChunkedCursor})
+     * @param sql the sql
+     * @param args the arguments
+     * @return the cursor
+     */
+    Cursor rawQuery(String sql, Object[] args){
+        int windowSize = getWindowSize();
+        if(windowSize > 0 && !WindowedCursor.isWindowSizeSupported() && isChunkable(sql))
+            return new ChunkedCursor(table.db, columnString, fromString, whereString, args, windowSize);
+        if(idTable == null && isCacheable())
+            return table.cachedQuery(sql, args, windowSize);
+        return TempIdTable.query(table.db, sql, args, windowSize, idTable);
+    }
+
+    /**
+     * Creates a row stream of the cursor. Inside a transaction the rows are not
+     * prefetched: the transaction holds the connection the worker would wait for
+     * (or, with write-ahead logging, the worker wouldn't see the uncommitted rows)
+     */
+    RowStream stream(Cursor cursor, int prefetchRows){
+        if(prefetchRows > 0 && table.db.sqLiteDb.inTransaction()) return new RowStream(cursor);
+        return new RowStream(cursor, prefetchRows);
+    }
+
+    /**
+     * Returns the window size of this select,
+     * or the one from {@link com.bingzer.android.dbv.IConfig#getCursorWindowSize()}
+     */
+    int getWindowSize(){
+        return windowSize >= 0 ? windowSize : table.db.getConfig().getCursorWindowSize();
+    }
+
+    /**
+     * Returns true if the result only depends on the table (see {@link Table#getCache()}),
+     * a subquery may select from another table
+     */
+    boolean isCacheable(){
+        return !Table.hasSubquery(columnString) && !Table.hasSubquery(whereString) && !Table.hasSubquery(havingString);
+    }
+
+    /**
+     * Returns true if <code>sql</code> is this select and it can be
+     * fetched in chunks ordered by rowid (see {@link ChunkedCursor}).
+     * <code>WITHOUT ROWID</code> tables are never chunked, neither are projections
+     * other than <code>*</code> or plain column names (an aggregate is a single row)
+     */
+    boolean isChunkable(String sql){
+        return idTable == null && !(table instanceof View) && !table.cache.isEnabled() && table.hasRowId() &&
+                isEmpty(groupByString) && isEmpty(orderByString) && isEmpty(limitString) &&
+                selectString.indexOf("DISTINCT") < 0 && PLAIN_COLUMNS.matcher(columnString).matches() &&
+                sql.equals(toString());
+    }
+
+    private static boolean isEmpty(StringBuilder builder){
+        return builder == null || builder.length() == 0;
+    }
+
     @Override
     public String toString(){
         StringBuilder sql = new StringBuilder();
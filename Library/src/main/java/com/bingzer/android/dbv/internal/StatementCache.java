@@ -0,0 +1,229 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.internal;
+
+import android.annotation.TargetApi;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteProgram;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Build;
+
+import com.bingzer.android.dbv.utils.StatementUtils;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * LRU cache of compiled {@link SQLiteStatement} keyed by their sql.
+ * Used for writes as well as for single-value queries (count, has, selectId..)
+ * that don't need a cursor.
+ * Evicted statements are closed. Every statement is compiled against
+ * the current <code>SQLiteDatabase</code>; if the database changes
+ * (i.e: re-opened) all cached statements are released.
+ * <p>
+ * A statement holds its own bindings, so a statement is checked out
+ * of the cache while it's being bound and executed.
+ * <p>
+ * Every write invalidates the table's {@link ResultCache} once it's done.
+ */
+class StatementCache {
+
+    static final int DEFAULT_CAPACITY = 32;
+
+    private final Database db;
+    private final ResultCache results;
+    private final int capacity;
+    private final Map<String, SQLiteStatement> statements;
+    private final Set<SQLiteStatement> inUse = new HashSet<SQLiteStatement>();
+    private SQLiteDatabase owner;
+
+    StatementCache(Database db, ResultCache results){
+        this(db, results, DEFAULT_CAPACITY);
+    }
+
+    StatementCache(Database db, ResultCache results, final int capacity){
+        this.db = db;
+        this.results = results;
+        this.capacity = capacity;
+        this.statements = new LinkedHashMap<String, SQLiteStatement>(capacity, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SQLiteStatement> eldest) {
+                if(size() > StatementCache.this.capacity){
+                    eldest.getValue().close();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Executes an INSERT statement
+     * @param sql the sql
+     * @param args arguments to bind
+     * @return the row id of the inserted row, -1 if failed
+     */
+    long executeInsert(String sql, Object... args){
+        SQLiteStatement statement = acquire(sql);
+        try{
+            StatementUtils.bindArgs(statement, args);
+            return statement.executeInsert();
+        }
+        finally {
+            release(sql, statement);
+            results.invalidate();
+        }
+    }
+
+    /**
+     * Executes an UPDATE or DELETE statement
+     * @param sql the sql
+     * @param args arguments to bind
+     * @return the number of rows affected
+     */
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    int executeUpdateDelete(String sql, Object... args){
+        SQLiteStatement statement = acquire(sql);
+        try{
+            StatementUtils.bindArgs(statement, args);
+            return statement.executeUpdateDelete();
+        }
+        finally {
+            release(sql, statement);
+            results.invalidate();
+        }
+    }
+
+    /**
+     * Executes an INSERT statement
+     * @param sql the sql
+     * @param binder binds the arguments
+     * @return the row id of the inserted row, -1 if failed
+     */
+    long executeInsert(String sql, Binder binder){
+        SQLiteStatement statement = acquire(sql);
+        try{
+            binder.bind(statement);
+            return statement.executeInsert();
+        }
+        finally {
+            release(sql, statement);
+            results.invalidate();
+        }
+    }
+
+    /**
+     * Executes an UPDATE or DELETE statement
+     * @param sql the sql
+     * @param binder binds the arguments
+     * @return the number of rows affected
+     */
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    int executeUpdateDelete(String sql, Binder binder){
+        SQLiteStatement statement = acquire(sql);
+        try{
+            binder.bind(statement);
+            return statement.executeUpdateDelete();
+        }
+        finally {
+            release(sql, statement);
+            results.invalidate();
+        }
+    }
+
+    /**
+     * Executes a query that returns a single row and a single column as long.
+     * The value will be 0 if the column is null
+     * @param sql the sql
+     * @param args arguments to bind
+     * @return the value
+     * @throws android.database.sqlite.SQLiteDoneException if the query returns no rows
+     */
+    long simpleQueryForLong(String sql, Object... args){
+        SQLiteStatement statement = acquire(sql);
+        try{
+            StatementUtils.bindArgs(statement, args);
+            return statement.simpleQueryForLong();
+        }
+        finally {
+            release(sql, statement);
+        }
+    }
+
+    /**
+     * Checks out the compiled statement for the sql. The statement
+     * will be compiled if it's not cached. No lock is held while the statement
+     * is executing, so a writer waiting for a connection never blocks other threads
+     * (which may be holding that connection inside a transaction) from this cache.
+     * @param sql the sql
+     * @return compiled statement
+     */
+    private synchronized SQLiteStatement acquire(String sql){
+        SQLiteDatabase sqLiteDb = db.sqLiteDb;
+        if(owner != sqLiteDb){
+            clear();
+            owner = sqLiteDb;
+        }
+
+        SQLiteStatement statement = statements.remove(sql);
+        if(statement == null){
+            statement = sqLiteDb.compileStatement(sql);
+        }
+
+        inUse.add(statement);
+        return statement;
+    }
+
+    /**
+     * Returns the statement back to the cache. The statement is closed
+     * if the cache has been cleared since or if another one was cached meanwhile
+     */
+    private synchronized void release(String sql, SQLiteStatement statement){
+        statement.clearBindings();
+        if(!inUse.remove(statement) || statements.containsKey(sql)){
+            statement.close();
+        }
+        else {
+            statements.put(sql, statement);
+        }
+    }
+
+    /**
+     * Closes and removes all cached statements
+     */
+    synchronized void clear(){
+        for(SQLiteStatement statement : statements.values()){
+            statement.close();
+        }
+        statements.clear();
+        // statements that are currently executing will be closed once released
+        inUse.clear();
+        owner = null;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Binds the arguments directly to the statement
+     */
+    static interface Binder {
+
+        void bind(SQLiteProgram program);
+
+    }
+}
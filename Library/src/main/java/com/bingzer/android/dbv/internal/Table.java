@@ -17,12 +17,19 @@ package com.bingzer.android.dbv.internal;
 
 import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
+import android.database.sqlite.SQLiteProgram;
+import android.os.Build;
 
 import com.bingzer.android.dbv.Delegate;
+import com.bingzer.android.dbv.IBaseEntity;
 import com.bingzer.android.dbv.IDatabase;
 import com.bingzer.android.dbv.IEntity;
+import com.bingzer.android.dbv.IEntityMapper;
 import com.bingzer.android.dbv.IEntityList;
 import com.bingzer.android.dbv.ITable;
+import com.bingzer.android.dbv.queries.Aggregate;
 import com.bingzer.android.dbv.queries.Average;
 import com.bingzer.android.dbv.queries.Delete;
 import com.bingzer.android.dbv.queries.IQuery;
@@ -40,26 +47,45 @@ import com.bingzer.android.dbv.queries.Union;
 import com.bingzer.android.dbv.queries.Update;
 import com.bingzer.android.dbv.utils.CollectionUtils;
 import com.bingzer.android.dbv.utils.ContentValuesUtils;
+import com.bingzer.android.dbv.utils.EntityUtils;
+import com.bingzer.android.dbv.utils.MapperUtils;
 import com.bingzer.android.dbv.utils.Utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Created by Ricky Tobing on 7/16/13.
  */
 class Table implements ITable {
+    /** SQLITE_MAX_COMPOUND_SELECT, also limits multi-row VALUES before SQLite 3.8.8 */
+    static final int MAX_COMPOUND_ROWS = 500;
+
     private String alias;
     private String name;
     private final List<String> columns;
+    // null until known, see hasRowId()
+    private Boolean rowIdTable;
 
     protected final Database db;
+    protected final ResultCache cache;
+    protected final StatementCache statements;
 
     public Table (Database db, String name){
         this.name = name;
         this.db = db;
         this.columns = new ArrayList<String>();
+        this.cache = new ResultCache(db);
+        this.statements = new StatementCache(db, cache);
         queryColumns();
     }
 
@@ -112,17 +138,23 @@ class Table implements ITable {
 
     @Override
     public long selectId(String whereClause, Object... args) {
-        long id = -1;
-        Cursor cursor =
-                select(whereClause, args)
-                        .columns(getPrimaryKeyColumn())
-                        .query();
+        StringBuilder sql = new StringBuilder("SELECT ").append(getPrimaryKeyColumn())
+                .append(" FROM ").append(toString());
+        if(whereClause != null){
+            // append where if necessary
+            if(!whereClause.toLowerCase(Locale.getDefault()).startsWith("where"))
+                sql.append(" WHERE ");
+            sql.append(whereClause);
+        }
+        sql.append(" LIMIT 1");
 
-        if(cursor.moveToNext()){
-            id = cursor.getLong(0);
+        try{
+            return simpleQueryForLong(sql.toString(), Utils.normalizeArgs(whereClause, args));
+        }
+        catch (SQLiteDoneException e){
+            // no rows
+            return -1;
         }
-        cursor.close();
-        return id;
     }
 
     @Override
@@ -132,12 +164,58 @@ class Table implements ITable {
 
     @Override
     public Select select(long id) {
-        return select(generateParamId(id));
+        return select(getPrimaryKeyColumn() + " = ?", id);
     }
 
     @Override
     public Select select(long... ids) {
-        return select(generateParamInIds(ids));
+        if(ids == null || ids.length == 0)
+            return select((String) null);
+        if(ids.length <= IdSet.MAX_VARIABLES)
+            return select(IdSet.inClause(getPrimaryKeyColumn(), ids.length, 0), IdSet.chunkArgs(ids, 0));
+
+        // too many to bind, join against a temporary table instead
+        TempIdTable idTable = new TempIdTable(db, ids);
+        SelectImpl select = (SelectImpl) select(getPrimaryKeyColumn() + " IN (SELECT Id FROM " + idTable + ")");
+        select.idTable = idTable;
+        return select;
+    }
+
+    @Override
+    public <E extends IEntity> Map<Long, E> selectMap(IEntityList<E> entityList, long... ids) {
+        final Map<Long, E> map = new HashMap<Long, E>();
+        if(ids == null || ids.length == 0) return map;
+
+        // unique and sorted, so every row is only selected once
+        long[] uniqueIds = ids.clone();
+        Arrays.sort(uniqueIds);
+        int length = 1;
+        for(int i = 1; i < uniqueIds.length; i++){
+            if(uniqueIds[i] != uniqueIds[length - 1]) uniqueIds[length++] = uniqueIds[i];
+        }
+        if(length < uniqueIds.length){
+            long[] trimmed = new long[length];
+            System.arraycopy(uniqueIds, 0, trimmed, 0, length);
+            uniqueIds = trimmed;
+        }
+
+        // each chunk is materialized right away so there's no need for a temporary table
+        int start = CollectionUtils.size(entityList);
+        for(int chunk = 0; chunk < IdSet.chunkCount(uniqueIds.length); chunk++){
+            Cursor cursor = select(IdSet.inClause(getPrimaryKeyColumn(), uniqueIds.length, chunk), IdSet.chunkArgs(uniqueIds, chunk)).query();
+            try{
+                EntityUtils.mapEntityListFromCursor(this, entityList, cursor, true);
+            }
+            finally {
+                cursor.close();
+            }
+        }
+
+        int counter = 0;
+        for(E entity : entityList){
+            if(counter++ >= start) map.put(entity.getId(), entity);
+        }
+        return map;
     }
 
     @Override
@@ -149,7 +227,7 @@ class Table implements ITable {
     public Select select(int top, String whereClause, Object... args) {
         return new SelectImpl(this, top, false){
             @Override public Cursor query(){
-                return db.sqLiteDb.rawQuery(toString(), null);
+                return rawQuery(toString(), getArgs());
             }
         }.where(whereClause, args);
     }
@@ -185,7 +263,7 @@ class Table implements ITable {
     public Select selectDistinct(int top, String whereClause, Object... args) {
         return new SelectImpl(this, top, true){
             @Override public Cursor query(){
-                return db.sqLiteDb.rawQuery(toString(), null);
+                return rawQuery(toString(), getArgs());
             }
         }.where(whereClause, args);
     }
@@ -197,7 +275,7 @@ class Table implements ITable {
         db.enforceReadOnly();
 
         InsertImpl query = new InsertImpl();
-        query.setValue( db.sqLiteDb.insertOrThrow(getName(), null, contents) );
+        query.setValue( executeInsert(contents) );
 
         return query;
     }
@@ -225,15 +303,24 @@ class Table implements ITable {
     }
 
     @Override
-    public InsertInto insertInto(String... columns) {
+    public InsertInto insertInto(final String... columns) {
         db.enforceReadOnly();
 
         return new InsertIntoImpl(new ContentSet<InsertIntoImpl>() {
             @Override
             public void onContentValuesSet(InsertIntoImpl query, ContentValues contentValues) {
-                query.setValue( db.sqLiteDb.insertOrThrow(getName(), null, contentValues) );
+                query.setValue( executeInsert(contentValues.valueSet(), null, query.getConflictAlgorithm()) );
             }
-        }, columns);
+        }, columns){
+            @Override
+            public IQuery<long[]> values(Object[]... rows) {
+                if(columns.length == 0) return super.values(rows);
+
+                QueryImpl<long[]> query = new QueryImpl<long[]>();
+                query.setValue( executeInsert(columns, rows, getConflictAlgorithm()) );
+                return query;
+            }
+        };
     }
 
     @Override
@@ -241,13 +328,22 @@ class Table implements ITable {
     public Insert insert(IEntity entity) {
         db.enforceReadOnly();
 
-        // build content values..
-        final ContentValues contentValues = new ContentValues();
-        final Delegate.Mapper mapper = ContentValuesUtils.mapContentValuesFromEntity(contentValues, this, entity);
+        // generated mapper binds the fields directly
+        final IEntityMapper<IEntity> entityMapper = MapperUtils.getMapper(entity);
+        if(entityMapper != null){
+            InsertImpl insert = new InsertImpl();
+            insert.setValue( executeInsert(entityMapper, entity) );
+            ((IBaseEntity) entity).setId(insert.query());
+            return insert;
+        }
+
+        // delegates are bound directly to the statement, no content values needed
+        final Delegate.Mapper mapper = new Delegate.Mapper(this);
+        entity.map(mapper);
 
         // do not insert the primary column
-        contentValues.remove(getPrimaryKeyColumn());
-        Insert insert = insert(contentValues);
+        InsertImpl insert = new InsertImpl();
+        insert.setValue( executeInsert(mapper.entrySet(), getPrimaryKeyColumn()) );
 
         // assign the newly inserted id
         Delegate<Long> pkDelegate = mapper.get(getPrimaryKeyColumn());
@@ -259,21 +355,105 @@ class Table implements ITable {
     }
 
     @Override
-    public <E extends IEntity> Insert insert(final IEntityList<E> entityList) {
+    public <E extends IEntity> Insert insert(IEntityList<E> entityList) {
+        return insert(entityList, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public <E extends IEntity> Insert insert(IEntityList<E> entityList, final int chunkSize) {
         db.enforceReadOnly();
 
+        if(chunkSize <= 0) throw new IllegalArgumentException("Chunk size must be over 0");
+
         final InsertImpl query = new InsertImpl();
         query.setValue(0l);
 
-        db.begin(new IDatabase.Batch() {
+        final Iterator<E> iterator = entityList.iterator();
+        final BulkInsert bulkInsert = new BulkInsert(this);
+        final int[] count = new int[1];
+        final IDatabase.Batch chunk = new IDatabase.Batch() {
             @Override
             public void exec(IDatabase database) {
-                for(IEntity entity : entityList){
-                    insert(entity).query();
-                    query.setValue(query.query() + 1);
+                count[0] = 0;
+                while(count[0] < chunkSize && iterator.hasNext()){
+                    bulkInsert.insert(iterator.next());
+                    count[0]++;
+                }
+            }
+        };
+
+        try{
+            while(iterator.hasNext()){
+                // a failed chunk is rolled back, chunks before it stay committed
+                if(!db.begin(chunk).execute()) break;
+                query.setValue(query.query() + count[0]);
+            }
+        }
+        finally {
+            bulkInsert.close();
+        }
+
+        return query;
+    }
+
+    @Override
+    public Insert upsert(IEntity entity) {
+        db.enforceReadOnly();
+
+        InsertImpl query = new InsertImpl();
+        BulkInsert bulkInsert = new BulkInsert(this, true);
+        try{
+            if(db.isUpsertSupported()){
+                query.setValue( upsert(entity, bulkInsert, null) );
+            }
+            else {
+                // update then insert, both or none
+                BulkUpdate bulkUpdate = new BulkUpdate(this);
+                db.begin();
+                try{
+                    query.setValue( upsert(entity, bulkInsert, bulkUpdate) );
+                    db.commit();
+                }
+                finally {
+                    db.end();
+                    bulkUpdate.close();
                 }
             }
-        }).execute();
+        }
+        finally {
+            bulkInsert.close();
+        }
+
+        return query;
+    }
+
+    @Override
+    public <E extends IEntity> IQuery<Integer> upsert(final IEntityList<E> entityList) {
+        db.enforceReadOnly();
+
+        final UpdateImpl query = new UpdateImpl();
+        final BulkInsert bulkInsert = new BulkInsert(this, true);
+        final BulkUpdate bulkUpdate = db.isUpsertSupported() ? null : new BulkUpdate(this);
+
+        try{
+            boolean success = db.begin(new IDatabase.Batch() {
+                @Override
+                public void exec(IDatabase database) {
+                    for(E entity : entityList){
+                        upsert(entity, bulkInsert, bulkUpdate);
+                        query.setValue(query.query() + 1);
+                    }
+                }
+            }).execute();
+
+            // if there's any error we should return -1
+            if(!success)
+                query.setValue(-1);
+        }
+        finally {
+            bulkInsert.close();
+            if(bulkUpdate != null) bulkUpdate.close();
+        }
 
         return query;
     }
@@ -284,14 +464,25 @@ class Table implements ITable {
     public Update update(long id) {
         db.enforceReadOnly();
 
-        return update(generateParamId(id));
+        return update(getPrimaryKeyColumn() + " = ?", id);
     }
 
     @Override
-    public Update update(long... ids) {
+    public Update update(final long... ids) {
         db.enforceReadOnly();
 
-        return update(generateParamInIds(ids));
+        if(ids == null || ids.length == 0)
+            return update((String) null);
+        if(ids.length <= IdSet.MAX_VARIABLES)
+            return update(IdSet.inClause(getPrimaryKeyColumn(), ids.length, 0), IdSet.chunkArgs(ids, 0));
+
+        return new UpdateImpl(new ContentSet<UpdateImpl>() {
+            @Override
+            public void onContentValuesSet(UpdateImpl query, ContentValues contentValues) {
+                if(contentValues != null && contentValues.size() > 0)
+                    query.setValue(executeInChunks(contentValues, ids));
+            }
+        });
     }
 
     @Override
@@ -319,50 +510,129 @@ class Table implements ITable {
 
         if(entity.getId() < 0) throw new IllegalArgumentException("Id has to be over than 0");
 
-        final ContentValues contentValues = ContentValuesUtils.generateContentValuesFromEntity(this, entity);
-        contentValues.remove(getPrimaryKeyColumn());
+        // executeUpdateDelete() is only available on honeycomb and up
+        if(Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB){
+            final ContentValues contentValues = ContentValuesUtils.generateContentValuesFromEntity(this, entity);
+            contentValues.remove(getPrimaryKeyColumn());
+
+            return update(contentValues, entity.getId());
+        }
+
+        UpdateImpl query = new UpdateImpl();
+
+        // generated mapper binds the fields directly
+        final IEntityMapper<IEntity> entityMapper = MapperUtils.getMapper(entity);
+        if(entityMapper != null){
+            query.setValue( executeUpdate(entityMapper, entity) );
+            return query;
+        }
+
+        // delegates are bound directly to the statement, no content values needed
+        final Delegate.Mapper mapper = new Delegate.Mapper(this);
+        entity.map(mapper);
 
-        return update(contentValues, entity.getId());
+        query.setValue( executeUpdate(mapper.entrySet(), getPrimaryKeyColumn(), getPrimaryKeyColumn() + " = ?", new Object[]{ entity.getId() }) );
+        return query;
     }
 
     @Override
-    public <E extends IEntity> IQuery<Integer> update(final IEntityList<E> entityList) {
+    public IQuery<Integer> update(IEntity entity, String... columns) {
         db.enforceReadOnly();
 
-        final UpdateImpl query = new UpdateImpl();
+        if(columns == null || columns.length == 0) return update(entity);
+        if(entity.getId() < 0) throw new IllegalArgumentException("Id has to be over than 0");
 
-        boolean success = db.begin(new IDatabase.Batch() {
-            @Override
-            public void exec(IDatabase database) {
-                for(IEntity entity : entityList){
-                    query.setValue( query.query() + update(entity).query() );
-                }
+        final Delegate.Mapper mapper = new Delegate.Mapper(this);
+        entity.map(mapper);
+
+        final Map<String, Delegate> values = new LinkedHashMap<String, Delegate>(columns.length * 2);
+        for(String column : columns){
+            if(column.equals(getPrimaryKeyColumn())) continue;
+
+            Delegate delegate = mapper.get(column);
+            if(delegate == null) throw new IllegalArgumentException("Column is not mapped: " + column);
+            values.put(column, delegate);
+        }
+
+        // executeUpdateDelete() is only available on honeycomb and up
+        if(Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB){
+            final ContentValues contentValues = new ContentValues();
+            for(Map.Entry<String, Delegate> entry : values.entrySet()){
+                ContentValuesUtils.mapContentValuesFromDelegate(contentValues, entry.getKey(), entry.getValue());
             }
-        }).execute();
+
+            return update(contentValues, entity.getId());
+        }
+
+        UpdateImpl query = new UpdateImpl();
+        query.setValue( executeUpdate(values.entrySet(), null, getPrimaryKeyColumn() + " = ?", new Object[]{ entity.getId() }) );
+        return query;
+    }
+
+    @Override
+    public <E extends IEntity> IQuery<Integer> update(IEntityList<E> entityList) {
+        db.enforceReadOnly();
+
+        final UpdateImpl query = new UpdateImpl();
+        final int[] counts = update(entityList, null).query();
 
         // if there's any error we should return -1
-        if(!success)
+        if(counts == null)
             query.setValue(-1);
+        else {
+            for(int count : counts){
+                query.setValue(query.query() + count);
+            }
+        }
 
         return query;
     }
 
     @Override
-    public IQuery<Integer> update(ContentValues contents, long id) {
+    public <E extends IEntity> IQuery<int[]> update(final Iterable<E> entities, final ColumnSelector<? super E> selector) {
         db.enforceReadOnly();
 
-        return update(contents, generateParamId(id));
+        final QueryImpl<int[]> query = new QueryImpl<int[]>();
+        final BulkUpdate bulkUpdate = new BulkUpdate(this);
+        final List<Integer> counts = new ArrayList<Integer>();
+
+        try{
+            boolean success = db.begin(new IDatabase.Batch() {
+                @Override
+                public void exec(IDatabase database) {
+                    for(E entity : entities){
+                        String[] columns = selector == null ? null : selector.getColumns(entity);
+                        counts.add(bulkUpdate.update(entity, columns));
+                    }
+                }
+            }).execute();
+
+            // null if there's any error
+            if(success){
+                int[] value = new int[counts.size()];
+                for(int i = 0; i < value.length; i++){
+                    value[i] = counts.get(i);
+                }
+                query.setValue(value);
+            }
+        }
+        finally {
+            bulkUpdate.close();
+        }
+
+        return query;
     }
 
     @Override
-    public IQuery<Integer> update(ContentValues contents, String condition) {
+    public IQuery<Integer> update(ContentValues contents, long id) {
         db.enforceReadOnly();
 
-        UpdateImpl query = new UpdateImpl();
-        if(contents != null && contents.size() > 0)
-            query.setValue( db.sqLiteDb.update(getName(), contents, condition, null) );
+        return update(contents, getPrimaryKeyColumn() + " = ?", id);
+    }
 
-        return query;
+    @Override
+    public IQuery<Integer> update(ContentValues contents, String condition) {
+        return update(contents, condition, (Object) null);
     }
 
     @Override
@@ -370,11 +640,10 @@ class Table implements ITable {
         db.enforceReadOnly();
 
         UpdateImpl query = new UpdateImpl();
-        String[] args = Utils.toStringArray(whereArgs);
 
         // only update when content has something
         if(contents != null && contents.size() > 0)
-            query.setValue( db.sqLiteDb.update(getName(), contents, whereClause, args) );
+            query.setValue( executeUpdate(contents, whereClause, Utils.normalizeArgs(whereClause, whereArgs)) );
 
         return query;
     }
@@ -385,14 +654,19 @@ class Table implements ITable {
     public Delete delete(final long id) {
         db.enforceReadOnly();
 
-        return delete(generateParamId(id));
+        return delete(getPrimaryKeyColumn() + " = ?", id);
     }
 
     @Override
     public Delete delete(long... ids) {
         db.enforceReadOnly();
 
-        return delete(generateParamInIds(ids));
+        if(ids == null || ids.length == 0)
+            return delete((String) null);
+
+        DeleteImpl query = new DeleteImpl();
+        query.setValue(executeInChunks(null, ids));
+        return query;
     }
 
     @Override
@@ -405,7 +679,7 @@ class Table implements ITable {
             idz[counter++] = id;
         }
 
-        return delete(idz);
+        return deleteIds(idz);
     }
 
     @Override
@@ -420,7 +694,7 @@ class Table implements ITable {
         db.enforceReadOnly();
 
         DeleteImpl query = new DeleteImpl();
-        query.setValue(db.sqLiteDb.delete(getName(), whereClause, Utils.toStringArray((Object[]) whereArgs)));
+        query.setValue( executeDelete(whereClause, Utils.normalizeArgs(whereClause, whereArgs)) );
 
         return query;
     }
@@ -441,7 +715,7 @@ class Table implements ITable {
         for(E entity : entityList){
             ids[counter++] = entity.getId();
         }
-        return delete(ids);
+        return deleteIds(ids);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -453,24 +727,13 @@ class Table implements ITable {
 
     @Override
     public boolean has(long id) {
-        return has(generateParamId(id));
+        return has(getPrimaryKeyColumn() + " = ?", id);
     }
 
     @Override
     public boolean has(String whereClause, Object... whereArgs) {
-        StringBuilder sql = new StringBuilder("SELECT 1 FROM ").append(getName())
-                .append(" WHERE ").append(Utils.bindArgs(whereClause, whereArgs));
-        Cursor cursor = null;
-        try{
-            cursor = raw(sql.toString()).query();
-            if(cursor.moveToFirst()) return true;
-        }
-        finally {
-            if(cursor != null) cursor.close();
-        }
-
-        // nope!
-        return false;
+        String sql = "SELECT EXISTS (SELECT 1 FROM " + getName() + " WHERE " + whereClause + ")";
+        return simpleQueryForLong(sql, Utils.normalizeArgs(whereClause, whereArgs)) != 0;
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -482,24 +745,13 @@ class Table implements ITable {
 
     @Override
     public int count(String whereClause, Object... whereArgs) {
-        int count = 0;
-
         StringBuilder builder = new StringBuilder("SELECT COUNT(*) FROM " + toString());
         if(whereClause != null){
             builder.append(" WHERE ");
-            builder.append(Utils.bindArgs(whereClause, whereArgs));
+            builder.append(whereClause);
         }
 
-        Cursor cursor = db.sqLiteDb.rawQuery(builder.toString(), null);
-        try{
-            if(cursor.moveToNext()){
-                count = cursor.getInt(0);
-            }
-        }
-        finally {
-            cursor.close();
-        }
-        return count;
+        return (int) simpleQueryForLong(builder.toString(), Utils.normalizeArgs(whereClause, whereArgs));
     }
 
     @Override
@@ -518,9 +770,7 @@ class Table implements ITable {
     public IQuery<Cursor> raw(final String sql, final Object... args) {
         return new QueryImpl<Cursor>(){
             @Override public Cursor query(){
-                if(args == null || args.length == 0)
-                    return db.sqLiteDb.rawQuery(sql, null);
-                else return db.sqLiteDb.rawQuery(sql, Utils.toStringArray(args));
+                return db.rawQuery(sql, Utils.normalizeArgs(sql, args));
             }
         };
     }
@@ -534,6 +784,7 @@ class Table implements ITable {
         DropImpl query = new DropImpl();
         try{
             db.execSql("DROP TABLE " + getName());
+            statements.clear();
             query.setValue( true );
         }
         catch (Exception e){
@@ -550,7 +801,7 @@ class Table implements ITable {
     public InnerJoin join(String tableName, String onClause) {
         return new InnerJoinImpl(this, tableName, onClause){
             @Override public Cursor query(){
-                return db.sqLiteDb.rawQuery(toString(), null);
+                return rawQuery(toString(), getArgs());
             }
         };
     }
@@ -564,7 +815,7 @@ class Table implements ITable {
     public OuterJoin outerJoin(String tableName, String onClause) {
         return new OuterJoinImpl(this, tableName, onClause){
             @Override public Cursor query(){
-                return db.sqLiteDb.rawQuery(toString(), null);
+                return rawQuery(toString(), getArgs());
             }
         };
     }
@@ -578,7 +829,7 @@ class Table implements ITable {
     public LeftJoin leftJoin(String tableName, String onClause) {
         return new LeftJoinImpl(this, tableName, onClause){
             @Override public Cursor query(){
-                return db.sqLiteDb.rawQuery(toString(), null);
+                return rawQuery(toString(), getArgs());
             }
         };
     }
@@ -596,7 +847,7 @@ class Table implements ITable {
         return new UnionImpl(select, this) {
             @Override
             public Cursor query() {
-                return raw(toString()).query();
+                return rawQuery(toString(), getArgs());
             }
         };
     }
@@ -606,13 +857,18 @@ class Table implements ITable {
         return new UnionImpl(select, this, true) {
             @Override
             public Cursor query() {
-                return raw(toString()).query();
+                return rawQuery(toString(), getArgs());
             }
         };
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
+    @Override
+    public Aggregate aggregate(String columnName) {
+        return new AggregateImpl(this, columnName);
+    }
+
     @Override
     public Average avg(String columnName) {
         return avg(columnName, null);
@@ -620,18 +876,12 @@ class Table implements ITable {
 
     @Override
     public Average avg(String columnName, String condition) {
-        AverageImpl fn = new AverageImpl(toString(), columnName, condition);
-        Cursor cursor = raw(fn.toString()).query();
-        if(cursor.moveToNext()){
-            fn.setValue(cursor.getDouble(0));
-        }
-        cursor.close();
-        return fn;
+        return avg(columnName, condition, (Object) null);
     }
 
     @Override
     public Average avg(String columnName, String whereClause, Object... args) {
-        return avg(columnName, Utils.bindArgs(whereClause, args));
+        return queryFunction(new AverageImpl(toString(), columnName, whereClause, Utils.normalizeArgs(whereClause, args)));
     }
 
     @Override
@@ -641,18 +891,12 @@ class Table implements ITable {
 
     @Override
     public Sum sum(String columnName, String condition) {
-        SumImpl fn = new SumImpl(toString(), columnName, condition);
-        Cursor cursor = raw(fn.toString()).query();
-        if(cursor.moveToNext()){
-            fn.setValue(cursor.getDouble(0));
-        }
-        cursor.close();
-        return fn;
+        return sum(columnName, condition, (Object) null);
     }
 
     @Override
     public Sum sum(String columnName, String whereClause, Object... args) {
-        return sum(columnName, Utils.bindArgs(whereClause, args));
+        return queryFunction(new SumImpl(toString(), columnName, whereClause, Utils.normalizeArgs(whereClause, args)));
     }
 
     @Override
@@ -662,18 +906,12 @@ class Table implements ITable {
 
     @Override
     public Total total(String columnName, String condition) {
-        TotalImpl fn = new TotalImpl(toString(), columnName, condition);
-        Cursor cursor = raw(fn.toString()).query();
-        if(cursor.moveToNext()){
-            fn.setValue(cursor.getDouble(0));
-        }
-        cursor.close();
-        return fn;
+        return total(columnName, condition, (Object) null);
     }
 
     @Override
     public Total total(String columnName, String whereClause, Object... args) {
-        return total(columnName, Utils.bindArgs(whereClause, args));
+        return queryFunction(new TotalImpl(toString(), columnName, whereClause, Utils.normalizeArgs(whereClause, args)));
     }
 
     @Override
@@ -683,18 +921,12 @@ class Table implements ITable {
 
     @Override
     public Max max(String columnName, String condition) {
-        MaxImpl fn = new MaxImpl(toString(), columnName, condition);
-        Cursor cursor = raw(fn.toString()).query();
-        if(cursor.moveToNext()){
-            fn.setValue(cursor.getDouble(0));
-        }
-        cursor.close();
-        return fn;
+        return max(columnName, condition, (Object) null);
     }
 
     @Override
     public Max max(String columnName, String whereClause, Object... args) {
-        return max(columnName, Utils.bindArgs(whereClause, args));
+        return queryFunction(new MaxImpl(toString(), columnName, whereClause, Utils.normalizeArgs(whereClause, args)));
     }
 
     @Override
@@ -704,18 +936,12 @@ class Table implements ITable {
 
     @Override
     public Min min(String columnName, String condition) {
-        MinImpl fn = new MinImpl(toString(), columnName, condition);
-        Cursor cursor = raw(fn.toString()).query();
-        if(cursor.moveToNext()){
-            fn.setValue(cursor.getDouble(0));
-        }
-        cursor.close();
-        return fn;
+        return min(columnName, condition, (Object) null);
     }
 
     @Override
     public Min min(String columnName, String whereClause, Object... args) {
-        return min(columnName, Utils.bindArgs(whereClause, args));
+        return queryFunction(new MinImpl(toString(), columnName, whereClause, Utils.normalizeArgs(whereClause, args)));
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
@@ -730,6 +956,8 @@ class Table implements ITable {
                 db.execSql("ALTER TABLE " + getName() + " RENAME TO " + newName);
                 // quickly change our name
                 name = newName;
+                // statements are compiled against the old name
+                statements.clear();
                 return this;
             }
 
@@ -756,6 +984,13 @@ class Table implements ITable {
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
+    @Override
+    public Cache getCache() {
+        return cache;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -780,8 +1015,372 @@ class Table implements ITable {
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
 
-    private String generateParamId(long id){
-        return getPrimaryKeyColumn() + " = " + id;
+    /**
+     * Releases all compiled statements
+     */
+    void clearStatements(){
+        statements.clear();
+    }
+
+    /**
+     * Returns true if the table has a rowid (it's not declared <code>WITHOUT ROWID</code>).
+     * The answer is kept since a table can't change it without being recreated
+     * @return true if the table has a rowid
+     */
+    boolean hasRowId(){
+        if(rowIdTable == null){
+            Cursor cursor = db.sqLiteDb.rawQuery("SELECT sql FROM sqlite_master WHERE type='table' AND name = ? COLLATE NOCASE", new String[]{ name });
+            try{
+                String sql = cursor.moveToNext() ? cursor.getString(0) : null;
+                // table options follow the closing parenthesis of the definition
+                rowIdTable = sql == null || !sql.substring(sql.lastIndexOf(')') + 1).toUpperCase(Locale.US).matches("(?s).*WITHOUT\\s+ROWID.*");
+            }
+            finally {
+                cursor.close();
+            }
+        }
+        return rowIdTable;
+    }
+
+    /**
+     * Estimates the number of rows from <code>sqlite_stat1</code>.
+     * The first number of every statistic is the number of rows in the index,
+     * the largest one is taken (partial indices have less).
+     * @return the estimated number of rows, -1 if the table has not been analyzed
+     */
+    long estimateRowCount(){
+        Cursor cursor = db.sqLiteDb.rawQuery("SELECT name FROM sqlite_master WHERE type='table' AND name='sqlite_stat1'", null);
+        try{
+            if(!cursor.moveToNext()) return -1;
+        }
+        finally {
+            cursor.close();
+        }
+
+        long row = -1;
+        cursor = db.sqLiteDb.rawQuery("SELECT stat FROM sqlite_stat1 WHERE tbl = ?", new String[]{ name });
+        try{
+            while(cursor.moveToNext()){
+                String stat = cursor.getString(0);
+                if(stat == null) continue;
+
+                int end = stat.indexOf(' ');
+                try{
+                    row = Math.max(row, Long.parseLong(end < 0 ? stat : stat.substring(0, end)));
+                }
+                catch (NumberFormatException e){
+                    // not a statistic we know
+                }
+            }
+        }
+        finally {
+            cursor.close();
+        }
+        return row;
+    }
+
+    /**
+     * Runs a query through the result cache (if enabled).
+     * <code>args</code> must be normalized
+     */
+    Cursor cachedQuery(String sql, Object[] args){
+        return cachedQuery(sql, args, db.getConfig().getCursorWindowSize());
+    }
+
+    /**
+     * Runs a query through the result cache (if enabled)
+     * with a window of <code>windowSize</code> bytes.
+     * <code>args</code> must be normalized
+     */
+    Cursor cachedQuery(String sql, Object[] args, int windowSize){
+        if(!cache.isEnabled() || hasSubquery(sql)) return db.rawQuery(sql, args, windowSize);
+
+        Cursor cursor = cache.getCursor(sql, args);
+        if(cursor == null){
+            long version = cache.getVersion();
+            cursor = cache.putCursor(sql, args, db.rawQuery(sql, args, windowSize), version);
+        }
+        return cursor;
+    }
+
+    /**
+     * Returns true if the sql (or a clause of it) has a subquery. Its result may depend
+     * on another table, whose writes don't invalidate this table's cache
+     * @param sql the sql or a clause, may be null
+     * @return true if there's a <code>SELECT</code> other than the leading one
+     */
+    static boolean hasSubquery(CharSequence sql){
+        if(sql == null) return false;
+        String upperSql = sql.toString().toUpperCase(Locale.US);
+        return upperSql.indexOf("SELECT", upperSql.startsWith("SELECT") ? 6 : 0) >= 0;
+    }
+
+    /**
+     * Single-value query through the result cache (if enabled)
+     */
+    private long simpleQueryForLong(String sql, Object[] args){
+        if(!cache.isEnabled() || hasSubquery(sql)) return statements.simpleQueryForLong(sql, args);
+
+        Object[] value = new Object[1];
+        if(cache.get(sql, args, value)) return (Long) value[0];
+
+        long version = cache.getVersion();
+        long result = statements.simpleQueryForLong(sql, args);
+        cache.put(sql, args, result, version);
+        return result;
+    }
+
+    /**
+     * Inserts using a cached compiled statement.
+     * The sql is keyed by the ordered column names in <code>contents</code>
+     */
+    private long executeInsert(ContentValues contents){
+        return executeInsert(contents.valueSet(), null);
+    }
+
+    /**
+     * Inserts the rows with multi-row statements in a single transaction.
+     * Every statement binds up to {@link IdSet#MAX_VARIABLES} values, full statements
+     * share the same cached compiled statement.
+     * @return the row ids of the first and the last row (-1 if none). The first one is
+     *          also -1 if rows may not get consecutive row ids (ids bound or conflicts resolved)
+     */
+    private long[] executeInsert(String[] columns, Object[][] rows, int conflictAlgorithm){
+        final long[] range = { -1, -1 };
+        boolean consecutive = conflictAlgorithm == SQLiteDatabase.CONFLICT_NONE;
+        for(String column : columns){
+            if(column.equalsIgnoreCase(getPrimaryKeyColumn()) || column.equalsIgnoreCase("rowid") ||
+                    column.equalsIgnoreCase("_rowid_") || column.equalsIgnoreCase("oid"))
+                consecutive = false;
+        }
+        final int rowsPerStatement = Math.max(1, Math.min(MAX_COMPOUND_ROWS, IdSet.MAX_VARIABLES / columns.length));
+
+        for(int i = 0; i < rows.length; i++){
+            if(rows[i].length != columns.length)
+                throw new IllegalArgumentException("Expected " + columns.length + " values, found " + rows[i].length + " (row " + i + ")");
+        }
+
+        String sql = null;
+        db.begin();
+        try{
+            for(int offset = 0; offset < rows.length; offset += rowsPerStatement){
+                int count = Math.min(rowsPerStatement, rows.length - offset);
+                // only the last statement may be shorter
+                if(sql == null || count < rowsPerStatement) sql = insertRowsSql(columns, count, conflictAlgorithm);
+
+                Object[] args = new Object[count * columns.length];
+                for(int i = 0; i < count; i++){
+                    System.arraycopy(rows[offset + i], 0, args, i * columns.length, columns.length);
+                }
+
+                long rowId = statements.executeInsert(sql, args);
+                if(rowId < 0) continue;
+                if(consecutive && range[0] < 0) range[0] = rowId - count + 1;
+                range[1] = rowId;
+            }
+            db.commit();
+        }
+        finally {
+            db.end();
+        }
+
+        return range;
+    }
+
+    /**
+     * Multi-row VALUES needs SQLite 3.7.11 (jelly bean),
+     * before that the rows are selected with UNION ALL
+     */
+    private String insertRowsSql(String[] columns, int count, int conflictAlgorithm){
+        final boolean multiValues = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN;
+        final StringBuilder sql = new StringBuilder("INSERT").append(InsertIntoImpl.getConflictClause(conflictAlgorithm))
+                .append(" INTO ").append(getName()).append(" (");
+        final StringBuilder row = new StringBuilder(multiValues ? "(" : "SELECT ");
+
+        for(int i = 0; i < columns.length; i++){
+            if(i > 0){
+                sql.append(",");
+                row.append(",");
+            }
+            sql.append(columns[i]);
+            row.append("?");
+        }
+        if(multiValues) row.append(")");
+
+        sql.append(multiValues ? ") VALUES " : ") ");
+        for(int i = 0; i < count; i++){
+            if(i > 0) sql.append(multiValues ? "," : " UNION ALL ");
+            sql.append(row);
+        }
+
+        return sql.toString();
+    }
+
+    /**
+     * Inserts or updates the entity. Without <code>bulkUpdate</code> the insert statement
+     * resolves the conflict, otherwise existing rows are updated first
+     */
+    private long upsert(IEntity entity, BulkInsert bulkInsert, BulkUpdate bulkUpdate){
+        if(bulkUpdate != null && entity.getId() > 0 && bulkUpdate.update(entity) > 0)
+            return entity.getId();
+        return bulkInsert.insert(entity);
+    }
+
+    /**
+     * Inserts using a cached compiled statement.
+     * Values can be any argument or {@link Delegate} (see {@link com.bingzer.android.dbv.utils.StatementUtils#bindArg})
+     * @param values column names and values
+     * @param excludedColumn column to skip (maybe null)
+     */
+    private long executeInsert(Set<? extends Map.Entry<String, ?>> values, String excludedColumn){
+        return executeInsert(values, excludedColumn, SQLiteDatabase.CONFLICT_NONE);
+    }
+
+    /**
+     * Inserts using a cached compiled statement.
+     * @param values column names and values
+     * @param excludedColumn column to skip (maybe null)
+     * @param conflictAlgorithm one of the <code>SQLiteDatabase.CONFLICT_*</code>
+     */
+    private long executeInsert(Set<? extends Map.Entry<String, ?>> values, String excludedColumn, int conflictAlgorithm){
+        final List<Object> args = new ArrayList<Object>(values.size());
+        final StringBuilder sql = new StringBuilder("INSERT").append(InsertIntoImpl.getConflictClause(conflictAlgorithm))
+                .append(" INTO ").append(getName());
+        final StringBuilder params = new StringBuilder();
+
+        for(Map.Entry<String, ?> entry : values){
+            if(entry.getKey().equals(excludedColumn)) continue;
+
+            sql.append(args.size() == 0 ? " (" : ",").append(entry.getKey());
+            params.append(args.size() == 0 ? "?" : ",?");
+            args.add(entry.getValue());
+        }
+
+        if(args.size() == 0)
+            sql.append(" DEFAULT VALUES");
+        else
+            sql.append(") VALUES (").append(params).append(")");
+
+        return statements.executeInsert(sql.toString(), args.toArray());
+    }
+
+    /**
+     * Updates using a cached compiled statement.
+     * <code>whereArgs</code> must be normalized
+     */
+    private int executeUpdate(ContentValues contents, String whereClause, Object[] whereArgs){
+        // executeUpdateDelete() is only available on honeycomb and up
+        if(Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB)
+            return db.sqLiteDb.update(getName(), contents, whereClause, Utils.toStringArray(whereArgs));
+
+        return executeUpdate(contents.valueSet(), null, whereClause, whereArgs);
+    }
+
+    /**
+     * Updates using a cached compiled statement (honeycomb and up).
+     * Values can be any argument or {@link Delegate} (see {@link com.bingzer.android.dbv.utils.StatementUtils#bindArg})
+     * @param values column names and values
+     * @param excludedColumn column to skip (maybe null)
+     * @param whereClause the where clause
+     * @param whereArgs normalized where arguments
+     * @return number of rows updated
+     */
+    private int executeUpdate(Set<? extends Map.Entry<String, ?>> values, String excludedColumn, String whereClause, Object[] whereArgs){
+        final List<Object> args = new ArrayList<Object>(values.size() + whereArgs.length);
+        final StringBuilder sql = new StringBuilder("UPDATE ").append(getName()).append(" SET ");
+
+        for(Map.Entry<String, ?> entry : values){
+            if(entry.getKey().equals(excludedColumn)) continue;
+
+            if(args.size() > 0) sql.append(",");
+            sql.append(entry.getKey()).append("=?");
+            args.add(entry.getValue());
+        }
+
+        // nothing to update
+        if(args.size() == 0) return 0;
+
+        Collections.addAll(args, whereArgs);
+        if(whereClause != null) sql.append(" WHERE ").append(whereClause);
+
+        return statements.executeUpdateDelete(sql.toString(), args.toArray());
+    }
+
+    /**
+     * Inserts using a cached compiled statement.
+     * Columns are bound by the generated mapper
+     */
+    private long executeInsert(final IEntityMapper<IEntity> entityMapper, final IEntity entity){
+        final String[] columns = entityMapper.getColumns();
+        final StringBuilder sql = new StringBuilder("INSERT INTO ").append(getName()).append(" (");
+        for(int i = 0; i < columns.length; i++){
+            if(i > 0) sql.append(",");
+            sql.append(columns[i]);
+        }
+        sql.append(") VALUES (");
+        for(int i = 0; i < columns.length; i++){
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(")");
+
+        return statements.executeInsert(sql.toString(), new StatementCache.Binder() {
+            @Override
+            public void bind(SQLiteProgram program) {
+                entityMapper.bind(entity, program, 1);
+            }
+        });
+    }
+
+    /**
+     * Updates the entity (by its id) using a cached compiled statement (honeycomb and up).
+     * Columns are bound by the generated mapper
+     */
+    private int executeUpdate(final IEntityMapper<IEntity> entityMapper, final IEntity entity){
+        final String[] columns = entityMapper.getColumns();
+        final StringBuilder sql = new StringBuilder("UPDATE ").append(getName()).append(" SET ");
+        for(int i = 0; i < columns.length; i++){
+            if(i > 0) sql.append(",");
+            sql.append(columns[i]).append("=?");
+        }
+        sql.append(" WHERE ").append(getPrimaryKeyColumn()).append(" = ?");
+
+        return statements.executeUpdateDelete(sql.toString(), new StatementCache.Binder() {
+            @Override
+            public void bind(SQLiteProgram program) {
+                entityMapper.bind(entity, program, 1);
+                program.bindLong(columns.length + 1, entity.getId());
+            }
+        });
+    }
+
+    /**
+     * Deletes using a cached compiled statement.
+     * <code>whereArgs</code> must be normalized
+     */
+    private int executeDelete(String whereClause, Object[] whereArgs){
+        // executeUpdateDelete() is only available on honeycomb and up
+        if(Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB)
+            return db.sqLiteDb.delete(getName(), whereClause, Utils.toStringArray(whereArgs));
+
+        String sql = "DELETE FROM " + getName();
+        if(whereClause != null) sql += " WHERE " + whereClause;
+
+        return statements.executeUpdateDelete(sql, whereArgs);
+    }
+
+    private <T extends FunctionImpl> T queryFunction(T fn){
+        // read as double from the cursor, SQLiteStatement can only
+        // return a real as text (15 significant digits)
+        Cursor cursor = cachedQuery(fn.toString(), fn.getArgs());
+        try{
+            if(cursor.moveToNext()){
+                fn.setValue(cursor.getDouble(0));
+            }
+        }
+        finally {
+            cursor.close();
+        }
+        return fn;
     }
 
     private void queryColumns(){
@@ -802,29 +1401,41 @@ class Table implements ITable {
     }
 
     /**
-     * Generate IN(ID,ID,ID) params. if ids is empty or null
-     * then it will return null
-     * @param ids ids to generate params with
-     * @return string rep of IN(...) statements, null if ids is empty or null
+     * Deletes the ids. Unlike {@link #delete(long...)},
+     * an empty set of ids doesn't delete anything
      */
-    private String generateParamInIds(long... ids){
-        if(ids != null && ids.length > 0) {
-            StringBuilder builder = new StringBuilder();
-
-            builder.append(getPrimaryKeyColumn())
-                    .append(" IN (");
-            for (int i = 0; i < ids.length; i++) {
-                builder.append(ids[i]);
-                if (i < ids.length - 1) {
-                    builder.append(",");
-                }
-            }
-            builder.append(")");
-
-            return builder.toString();
+    private Delete deleteIds(long[] ids){
+        if(ids.length == 0){
+            DeleteImpl query = new DeleteImpl();
+            query.setValue(0);
+            return query;
         }
+        return delete(ids);
+    }
 
-        return null;
+    /**
+     * Updates (or deletes if contents is null) the ids.
+     * Ids are bound in chunks of {@link IdSet#MAX_VARIABLES} within a single transaction
+     * @return the number of rows affected
+     */
+    private int executeInChunks(ContentValues contents, long[] ids){
+        int affected = 0;
+        db.begin();
+        try{
+            for(int chunk = 0; chunk < IdSet.chunkCount(ids.length); chunk++){
+                String whereClause = IdSet.inClause(getPrimaryKeyColumn(), ids.length, chunk);
+                Object[] whereArgs = IdSet.chunkArgs(ids, chunk);
+                if(contents == null)
+                    affected += executeDelete(whereClause, whereArgs);
+                else
+                    affected += executeUpdate(contents, whereClause, whereArgs);
+            }
+            db.commit();
+        }
+        finally {
+            db.end();
+        }
+        return affected;
     }
 
 }
\ No newline at end of file
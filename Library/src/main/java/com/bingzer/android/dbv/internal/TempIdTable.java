@@ -0,0 +1,204 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.internal;
+
+import android.annotation.TargetApi;
+import android.database.Cursor;
+import android.database.CursorWrapper;
+import android.database.MatrixCursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Build;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A temporary table holding a (very large) set of ids so that a select
+ * can join against it instead of binding or inlining every single id.
+ * The table is created when the first cursor is opened and
+ * dropped once the last cursor using it is closed.
+ * <p>
+ * Temporary tables are only visible to the connection that created them.
+ * When write-ahead logging is enabled, queries may run on a different connection,
+ * so {@link #isSupported(Database)} returns false in that case: the table is created
+ * and the result is read inside one transaction (on one connection) and copied.
+ */
+class TempIdTable {
+
+    private static final AtomicInteger sequence = new AtomicInteger();
+
+    private final Database db;
+    private final long[] ids;
+    private final String name;
+    private int references;
+
+    TempIdTable(Database db, long[] ids){
+        this.db = db;
+        this.ids = ids;
+        this.name = "DbQuery_Ids_" + sequence.incrementAndGet();
+    }
+
+    /**
+     * Returns true if temporary id tables can be kept for as long as a cursor is open
+     * @param db the database
+     * @return true if supported
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    static boolean isSupported(Database db){
+        return Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN || !db.sqLiteDb.isWriteAheadLoggingEnabled();
+    }
+
+    /**
+     * Runs the query. All the id tables are kept alive until the returned cursor is closed.
+     * If the id tables are not supported (see {@link #isSupported(Database)}), the whole
+     * result is read inside a transaction and the cursor is a copy of it
+     * @param db the database
+     * @param sql the sql
+     * @param args the arguments
+     * @param windowSize the window size (see {@link Database#rawQuery(String, Object[], int)})
+     * @param idTables the id tables used by the sql (null entries are skipped)
+     * @return the cursor
+     */
+    static Cursor query(Database db, String sql, Object[] args, int windowSize, final TempIdTable... idTables){
+        boolean hasIdTables = false;
+        for(TempIdTable idTable : idTables){
+            hasIdTables |= idTable != null;
+        }
+        if(!hasIdTables) return db.rawQuery(sql, args, windowSize);
+        if(!isSupported(db)) return queryInTransaction(db, sql, args, windowSize, idTables);
+
+        acquireAll(idTables);
+        try{
+            return new CursorWrapper(db.rawQuery(sql, args, windowSize)){
+                private boolean closed = false;
+
+                @Override
+                public void close() {
+                    super.close();
+                    if(!closed){
+                        closed = true;
+                        releaseAll(idTables);
+                    }
+                }
+            };
+        }
+        catch (RuntimeException e){
+            releaseAll(idTables);
+            throw e;
+        }
+    }
+
+    @Override
+    public String toString(){
+        return name;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Creates the tables, runs the query and copies the result while the
+     * transaction holds the connection
+     */
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    private static Cursor queryInTransaction(Database db, String sql, Object[] args, int windowSize, TempIdTable... idTables){
+        SQLiteDatabase sqLiteDb = db.sqLiteDb;
+        sqLiteDb.beginTransaction();
+        try{
+            acquireAll(idTables);
+            try{
+                Cursor cursor = db.rawQuery(sql, args, windowSize);
+                try{
+                    MatrixCursor copy = new MatrixCursor(cursor.getColumnNames(), cursor.getCount());
+                    Object[] row = new Object[cursor.getColumnCount()];
+                    while(cursor.moveToNext()){
+                        for(int column = 0; column < row.length; column++){
+                            switch (cursor.getType(column)){
+                                case Cursor.FIELD_TYPE_INTEGER: row[column] = cursor.getLong(column); break;
+                                case Cursor.FIELD_TYPE_FLOAT: row[column] = cursor.getDouble(column); break;
+                                case Cursor.FIELD_TYPE_STRING: row[column] = cursor.getString(column); break;
+                                case Cursor.FIELD_TYPE_BLOB: row[column] = cursor.getBlob(column); break;
+                                default: row[column] = null; break;
+                            }
+                        }
+                        copy.addRow(row);
+                    }
+                    sqLiteDb.setTransactionSuccessful();
+                    return copy;
+                }
+                finally {
+                    cursor.close();
+                }
+            }
+            finally {
+                releaseAll(idTables);
+            }
+        }
+        finally {
+            sqLiteDb.endTransaction();
+        }
+    }
+
+    private static void acquireAll(TempIdTable... idTables){
+        for(TempIdTable idTable : idTables){
+            if(idTable != null) idTable.acquire();
+        }
+    }
+
+    private static void releaseAll(TempIdTable... idTables){
+        for(TempIdTable idTable : idTables){
+            if(idTable != null) idTable.release();
+        }
+    }
+
+    private synchronized void acquire(){
+        if(references == 0) create();
+        references++;
+    }
+
+    private synchronized void release(){
+        if(references > 0 && --references == 0) drop();
+    }
+
+    private void create(){
+        SQLiteDatabase sqLiteDb = db.sqLiteDb;
+        sqLiteDb.beginTransaction();
+        try{
+            sqLiteDb.execSQL("CREATE TEMP TABLE IF NOT EXISTS " + name + " (Id INTEGER PRIMARY KEY)");
+            SQLiteStatement statement = sqLiteDb.compileStatement("INSERT OR IGNORE INTO " + name + " VALUES (?)");
+            try{
+                for(long id : ids){
+                    statement.bindLong(1, id);
+                    statement.executeInsert();
+                }
+            }
+            finally {
+                statement.close();
+            }
+            sqLiteDb.setTransactionSuccessful();
+        }
+        finally {
+            sqLiteDb.endTransaction();
+        }
+    }
+
+    private void drop(){
+        // the table is gone anyway if the database has been closed
+        SQLiteDatabase sqLiteDb = db.sqLiteDb;
+        if(sqLiteDb != null && sqLiteDb.isOpen()){
+            sqLiteDb.execSQL("DROP TABLE IF EXISTS " + name);
+        }
+    }
+}
@@ -21,7 +21,11 @@ import com.bingzer.android.dbv.queries.Total;
 * Created by Ricky on 4/26/2014.
 */
 class TotalImpl extends FunctionImpl implements Total {
-    public TotalImpl(String tableName, String columnName, String condition){
-        super("TOTAL", tableName, columnName, condition);
+    public TotalImpl(String tableName, String columnName, String condition, Object... args){
+        super("TOTAL", tableName, columnName, condition, args);
+    }
+
+    TotalImpl(String columnName, double value){
+        super("TOTAL", columnName, value);
     }
 }
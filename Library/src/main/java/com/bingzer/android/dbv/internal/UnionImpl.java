@@ -15,9 +15,13 @@
  */
 package com.bingzer.android.dbv.internal;
 
+import android.database.Cursor;
+
 import com.bingzer.android.dbv.contracts.Distinguishable;
+import com.bingzer.android.dbv.queries.Paging;
 import com.bingzer.android.dbv.queries.Select;
 import com.bingzer.android.dbv.queries.Union;
+import com.bingzer.android.dbv.utils.Utils;
 
 /**
 * Created by Ricky on 4/26/2014.
@@ -115,6 +119,24 @@ abstract class UnionImpl extends SelectImpl implements Union, Distinguishable {
         return this;
     }
 
+    /**
+     * The key of a union is not known
+     */
+    @Override
+    public Paging keysetPaging(int row) {
+        throw new UnsupportedOperationException("Keyset paging is not supported on union");
+    }
+
+    @Override
+    Object[] getArgs() {
+        return Utils.concatArgs(((SelectImpl) firstSelect).getArgs(), ((SelectImpl) secondSelect).getArgs());
+    }
+
+    @Override
+    Cursor rawQuery(String sql, Object[] args) {
+        return TempIdTable.query(table.db, sql, args, getWindowSize(), ((SelectImpl) firstSelect).idTable, ((SelectImpl) secondSelect).idTable);
+    }
+
     @Override
     public String toString() {
         return String.valueOf(firstSelect) + " UNION " + (unionAll ? " ALL " : "") + secondSelect;
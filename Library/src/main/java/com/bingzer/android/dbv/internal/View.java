@@ -26,6 +26,14 @@ class View extends Table implements IView {
         super(db, name);
     }
 
+    /**
+     * Views are not cached, writes to the underlying tables can't be tracked
+     */
+    @Override
+    public Cache getCache() {
+        throw new UnsupportedOperationException("View is not cached");
+    }
+
     @Override
     public IQuery<Boolean> drop() {
         db.enforceReadOnly();
@@ -33,6 +41,7 @@ class View extends Table implements IView {
         DropImpl query = new DropImpl();
         try{
             db.execSql("DROP VIEW " + getName());
+            statements.clear();
             query.setValue(true);
         }
         catch (Exception e){
@@ -0,0 +1,133 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.internal;
+
+import android.annotation.TargetApi;
+import android.database.CursorWindow;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteCursorDriver;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteQuery;
+import android.os.Build;
+import android.os.Bundle;
+import android.util.Log;
+
+import com.bingzer.android.dbv.utils.CursorUtils;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * <code>SQLiteCursor</code> that counts how many times its window
+ * has been filled and uses a window of the requested size when
+ * the platform supports it (API 28 and up).
+ * The count is reported by {@link CursorUtils#getWindowFillCount(android.database.Cursor)}
+ * and logged when the cursor is closed in debug mode.
+ */
+class WindowedCursor extends SQLiteCursor {
+
+    private static final String TAG = "DBV.WindowedCursor";
+    private static final Constructor<CursorWindow> SIZED_WINDOW = findSizedWindowConstructor();
+
+    private final boolean debug;
+    private final String description;
+    private boolean counted = false;
+    private int fills = 0;
+
+    @SuppressWarnings("deprecation")
+    WindowedCursor(SQLiteDatabase db, SQLiteCursorDriver driver, String editTable, SQLiteQuery query, int windowSize, boolean debug){
+        super(db, driver, editTable, query);
+        this.debug = debug;
+        this.description = debug ? String.valueOf(query) : null;
+        setWindowSize(windowSize);
+    }
+
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    WindowedCursor(SQLiteCursorDriver driver, String editTable, SQLiteQuery query, int windowSize, boolean debug){
+        super(driver, editTable, query);
+        this.debug = debug;
+        this.description = debug ? String.valueOf(query) : null;
+        setWindowSize(windowSize);
+    }
+
+    /**
+     * Returns true if the window size can be set on this platform
+     */
+    static boolean isWindowSizeSupported(){
+        return SIZED_WINDOW != null;
+    }
+
+    @Override
+    public int getCount() {
+        // the first window is filled when the rows are counted
+        if(!counted){
+            counted = true;
+            fills++;
+        }
+        return super.getCount();
+    }
+
+    @Override
+    public boolean onMove(int oldPosition, int newPosition) {
+        CursorWindow window = getWindow();
+        if(window == null || newPosition < window.getStartPosition() ||
+                newPosition >= window.getStartPosition() + window.getNumRows()){
+            fills++;
+        }
+        return super.onMove(oldPosition, newPosition);
+    }
+
+    @Override
+    public Bundle getExtras() {
+        Bundle extras = new Bundle(1);
+        extras.putInt(CursorUtils.EXTRA_WINDOW_FILLS, fills);
+        return extras;
+    }
+
+    @Override
+    public void close() {
+        boolean wasClosed = isClosed();
+        super.close();
+        if(debug && !wasClosed){
+            Log.d(TAG, fills + " window fill(s) for " + description);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void setWindowSize(int windowSize){
+        if(windowSize <= 0 || SIZED_WINDOW == null) return;
+
+        try{
+            setWindow(SIZED_WINDOW.newInstance(getDatabase().getPath(), (long) windowSize));
+        }
+        catch (Exception e){
+            // keep the platform's window
+            if(debug) Log.w(TAG, "Unable to create a window of " + windowSize + " bytes", e);
+        }
+    }
+
+    /**
+     * <code>CursorWindow(String, long)</code> is available on API 28 and up
+     */
+    private static Constructor<CursorWindow> findSizedWindowConstructor(){
+        try{
+            return CursorWindow.class.getConstructor(String.class, long.class);
+        }
+        catch (NoSuchMethodException e){
+            return null;
+        }
+    }
+}
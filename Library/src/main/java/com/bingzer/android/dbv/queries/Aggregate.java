@@ -0,0 +1,150 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.queries;
+
+import java.util.List;
+
+/**
+ * Computes multiple aggregate functions of a column in a single statement
+ * (therefore, a single scan of the table).
+ * <pre><code>
+ * Aggregate.Result result = db.from("Products").aggregate("Price")
+ *          .min().max().avg().count()
+ *          .where("Name LIKE ?", "C%")
+ *          .query();
+ * result.min().asDouble();
+ * result.count();
+ * </code></pre>
+ * Use {@link #groupBy(String...)} to get a result for every group.
+ * <p>
+ *     Find a complete <code>Wiki</code> and documentation here:<br>
+ *     <a href="https://github.com/bingzer/DbQuery/wiki">https://github.com/bingzer/DbQuery/wiki</a>
+ * </p>
+ *
+ * @see com.bingzer.android.dbv.contracts.Function
+ */
+public interface Aggregate extends IQuery<Aggregate.Result> {
+
+    /**
+     * Adds <code>MIN</code>
+     * @return this
+     */
+    Aggregate min();
+
+    /**
+     * Adds <code>MAX</code>
+     * @return this
+     */
+    Aggregate max();
+
+    /**
+     * Adds <code>AVG</code>
+     * @return this
+     */
+    Aggregate avg();
+
+    /**
+     * Adds <code>SUM</code>
+     * @return this
+     */
+    Aggregate sum();
+
+    /**
+     * Adds <code>TOTAL</code>
+     * @return this
+     */
+    Aggregate total();
+
+    /**
+     * Adds <code>COUNT</code> (the number of non-null values)
+     * @return this
+     */
+    Aggregate count();
+
+    /**
+     * Specifies the condition
+     * @param condition the condition
+     * @return this
+     */
+    Aggregate where(String condition);
+
+    /**
+     * Specifies the condition
+     * @param whereClause where clause
+     * @param args arguments
+     * @return this
+     */
+    Aggregate where(String whereClause, Object... args);
+
+    /**
+     * Groups the results by the specified columns.
+     * Values of the columns are available from {@link Result#get(String)}
+     * @param columns the columns
+     * @return query that returns a result for every group
+     */
+    IQuery<List<Result>> groupBy(String... columns);
+
+    /**
+     * Result of an {@link Aggregate}.
+     * Functions that were not specified are null.
+     */
+    public static interface Result {
+
+        /**
+         * Returns the <code>MIN</code>
+         * @return the min, null if not specified
+         */
+        Min min();
+
+        /**
+         * Returns the <code>MAX</code>
+         * @return the max, null if not specified
+         */
+        Max max();
+
+        /**
+         * Returns the <code>AVG</code>
+         * @return the average, null if not specified
+         */
+        Average avg();
+
+        /**
+         * Returns the <code>SUM</code>
+         * @return the sum, null if not specified
+         */
+        Sum sum();
+
+        /**
+         * Returns the <code>TOTAL</code>
+         * @return the total, null if not specified
+         */
+        Total total();
+
+        /**
+         * Returns the <code>COUNT</code>
+         * @return the count, -1 if not specified
+         */
+        long count();
+
+        /**
+         * Returns the value of a group by column
+         * @param columnName the group by column
+         * @param <T> type
+         * @return the value, null if this is not a group by column
+         */
+        <T> T get(String columnName);
+    }
+}
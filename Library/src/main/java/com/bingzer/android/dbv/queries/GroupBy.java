@@ -18,9 +18,14 @@ package com.bingzer.android.dbv.queries;
 import android.database.Cursor;
 
 import com.bingzer.android.dbv.contracts.ColumnSelectable;
+import com.bingzer.android.dbv.contracts.ColumnarSelectable;
 import com.bingzer.android.dbv.contracts.CursorEnumerable;
+import com.bingzer.android.dbv.contracts.EntityEnumerable;
 import com.bingzer.android.dbv.contracts.EntitySelectable;
+import com.bingzer.android.dbv.contracts.LazyEntitySelectable;
 import com.bingzer.android.dbv.contracts.Pagination;
+import com.bingzer.android.dbv.contracts.RowReadable;
+import com.bingzer.android.dbv.contracts.RowStreamable;
 
 /**
  * Represents a group by statement
@@ -32,8 +37,8 @@ import com.bingzer.android.dbv.contracts.Pagination;
  * @see Having
  */
 public interface GroupBy extends IQuery<Cursor>,
-                                    EntitySelectable, ColumnSelectable,
-                                    Pagination, CursorEnumerable {
+                                    EntitySelectable, LazyEntitySelectable, ColumnSelectable, ColumnarSelectable, RowStreamable, RowReadable,
+                                    Pagination, CursorEnumerable, EntityEnumerable {
 
     /**
      * Adds a <code>HAVING</code> statement
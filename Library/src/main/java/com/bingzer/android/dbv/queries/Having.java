@@ -18,9 +18,14 @@ package com.bingzer.android.dbv.queries;
 import android.database.Cursor;
 
 import com.bingzer.android.dbv.contracts.ColumnSelectable;
+import com.bingzer.android.dbv.contracts.ColumnarSelectable;
 import com.bingzer.android.dbv.contracts.CursorEnumerable;
+import com.bingzer.android.dbv.contracts.EntityEnumerable;
 import com.bingzer.android.dbv.contracts.EntitySelectable;
+import com.bingzer.android.dbv.contracts.LazyEntitySelectable;
 import com.bingzer.android.dbv.contracts.Pagination;
+import com.bingzer.android.dbv.contracts.RowReadable;
+import com.bingzer.android.dbv.contracts.RowStreamable;
 
 /**
  * Represents <code>HAVING</code>
@@ -32,7 +37,7 @@ import com.bingzer.android.dbv.contracts.Pagination;
  * @see com.bingzer.android.dbv.queries.GroupBy
  */
 public interface Having extends IQuery<Cursor>,
-                                    EntitySelectable, ColumnSelectable,
-                                    Pagination, CursorEnumerable {
+                                    EntitySelectable, LazyEntitySelectable, ColumnSelectable, ColumnarSelectable, RowStreamable, RowReadable,
+                                    Pagination, CursorEnumerable, EntityEnumerable {
 
 }
@@ -29,4 +29,39 @@ public interface InsertInto {
      * @return {@link com.bingzer.android.dbv.queries.IQuery}
      */
     IQuery<Long> val(Object... values);
+
+    /**
+     * Inserts many rows in a single transaction. Rows are inserted with multi-row
+     * statements (<code>INSERT INTO .. VALUES (..),(..),..</code>), each statement binds up to
+     * 999 values (SQLITE_MAX_VARIABLE_NUMBER) and 500 rows.
+     * Statements of the same size share the same compiled statement.
+     * <pre><code>
+     * long[] range = db.from("Person").insertInto("Name", "Age")
+     *      .values(new Object[]{ "John", 23 }, new Object[]{ "Jane", 21 })
+     *      .query();
+     * </code></pre>
+     * @param rows the values of each row (in the same order as the columns)
+     * @return the row ids of the first and the last row inserted (-1 if none).
+     *          The first one is -1 when the ids are specified or a conflict algorithm
+     *          is set (see {@link #onConflict(int)}): rows may not get consecutive row ids
+     * @throws IllegalArgumentException if a row doesn't have a value for every column
+     */
+    IQuery<long[]> values(Object[]... rows);
+
+    /**
+     * Sets what happens when a row violates a constraint (i.e: the row already exists).
+     * Applies to every {@link #val(Object...)} and {@link #values(Object[]...)} called after.
+     * <pre><code>
+     * db.from("Person").insertInto("Id", "Name")
+     *      .onConflict(SQLiteDatabase.CONFLICT_IGNORE)
+     *      .val(1, "John");
+     * </code></pre>
+     * @param conflictAlgorithm one of the <code>SQLiteDatabase.CONFLICT_*</code>
+     *                          (the default is <code>CONFLICT_NONE</code>)
+     * @return this
+     * @throws IllegalArgumentException if the conflict algorithm is unknown
+     * @see android.database.sqlite.SQLiteDatabase#CONFLICT_REPLACE
+     * @see android.database.sqlite.SQLiteDatabase#CONFLICT_IGNORE
+     */
+    InsertInto onConflict(int conflictAlgorithm);
 }
@@ -20,8 +20,13 @@ import android.database.Cursor;
 import com.bingzer.android.dbv.IEntity;
 import com.bingzer.android.dbv.IEntityList;
 import com.bingzer.android.dbv.contracts.ColumnSelectable;
+import com.bingzer.android.dbv.contracts.ColumnarSelectable;
 import com.bingzer.android.dbv.contracts.CursorEnumerable;
+import com.bingzer.android.dbv.contracts.EntityEnumerable;
 import com.bingzer.android.dbv.contracts.EntitySelectable;
+import com.bingzer.android.dbv.contracts.LazyEntitySelectable;
+import com.bingzer.android.dbv.contracts.RowReadable;
+import com.bingzer.android.dbv.contracts.RowStreamable;
 
 /**
  * Represents a paging and select statement
@@ -30,7 +35,8 @@ import com.bingzer.android.dbv.contracts.EntitySelectable;
  *     <a href="https://github.com/bingzer/DbQuery/wiki">https://github.com/bingzer/DbQuery/wiki</a>
  * </p>
  */
-public interface Paging extends IQuery<Cursor>, EntitySelectable, CursorEnumerable {
+public interface Paging extends IQuery<Cursor>, EntitySelectable, LazyEntitySelectable, CursorEnumerable, EntityEnumerable,
+                                    ColumnarSelectable, RowStreamable, RowReadable {
 
     /**
      * Returns the number of row set in the beginning.
@@ -70,19 +76,26 @@ public interface Paging extends IQuery<Cursor>, EntitySelectable, CursorEnumerab
 
     /**
      * Returns the number of page available.
-     * This method will run SQL <code>"SELECT COUNT(*)"</code> query
-     * once called. This is very expensive call, but it's useful
-     * if you want to know ahead of time how many pages are available.
-     * <p>
-     * <b>Warning:</b>
-     * This method will throw an <code>UnsupportedException</code>,
-     * when using <code>Paging</code> with <code>OrderBy</code>
-     * or <code>Having</code>.
-     * </p>
+     * This method will run SQL <code>"SELECT COUNT(*) FROM (select)"</code> query
+     * once called, so selects using <code>GroupBy</code> or <code>Having</code>
+     * are counted by their groups.
+     * The count is kept until the table is written to, calling this
+     * method again is cheap. Selects on a view, selects that join other tables
+     * or use a subquery are always counted, as is every select below API 11.
      * @return the number of pages available with the given query
      */
     int getTotalPage();
 
+    /**
+     * Returns the estimated number of page available. For a select on the
+     * whole table (no where clause, group by, join or limit) the number of rows
+     * is taken from the statistics in <code>sqlite_stat1</code> (see <code>ANALYZE</code>)
+     * instead of being counted. The estimate is only as fresh as the last <code>ANALYZE</code>.
+     * Falls back to {@link #getTotalPage()} if there's no statistic.
+     * @return the estimated number of pages
+     */
+    int getEstimatedTotalPage();
+
     /**
      * Returns the current cursor.
      * @return current cursor
@@ -0,0 +1,69 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.queries;
+
+import android.database.Cursor;
+
+import com.bingzer.android.dbv.contracts.ColumnSelectable;
+import com.bingzer.android.dbv.contracts.ColumnarSelectable;
+import com.bingzer.android.dbv.contracts.CursorEnumerable;
+import com.bingzer.android.dbv.contracts.EntityEnumerable;
+import com.bingzer.android.dbv.contracts.EntitySelectable;
+import com.bingzer.android.dbv.contracts.LazyEntitySelectable;
+import com.bingzer.android.dbv.contracts.RowReadable;
+import com.bingzer.android.dbv.contracts.RowStreamable;
+
+/**
+ * Represents a select statement that has been prepared once and
+ * can be executed many times with different arguments.
+ * The sql is generated only once (when prepared). Calling {@link #bind(Object...)}
+ * only replaces the arguments, so it's cheap to re-run the same query
+ * shape over and over again.
+ * <p>
+ * <b>Note:</b> a <code>PreparedSelect</code> holds its arguments,
+ * it's not thread-safe and should not be shared between threads.
+ * <pre><code>
+ * PreparedSelect byName = db.prepare(db.from("Person").select("Name = ?"));
+ * ...
+ * byName.bind("John").query(person);
+ * byName.bind("Jane").query(person);
+ * </code></pre>
+ * <p>
+ *     Find a complete <code>Wiki</code> and documentation here:<br>
+ *     <a href="https://github.com/bingzer/DbQuery/wiki">https://github.com/bingzer/DbQuery/wiki</a>
+ * </p>
+ *
+ * @see com.bingzer.android.dbv.IDatabase#prepare(IQuery)
+ */
+public interface PreparedSelect extends IQuery<Cursor>, EntitySelectable, LazyEntitySelectable,
+                                            CursorEnumerable, EntityEnumerable, ColumnSelectable, ColumnarSelectable, RowStreamable, RowReadable {
+
+    /**
+     * Binds the arguments. Arguments are bound in the same order as
+     * the '?' placeholders in the statement. Missing arguments will be
+     * bound as null.
+     * @param args the arguments
+     * @return this
+     */
+    PreparedSelect bind(Object... args);
+
+    /**
+     * Returns the number of arguments (placeholders) in this statement
+     * @return number of arguments
+     */
+    int getArgCount();
+
+}
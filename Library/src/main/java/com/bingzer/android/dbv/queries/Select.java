@@ -18,10 +18,15 @@ package com.bingzer.android.dbv.queries;
 import android.database.Cursor;
 
 import com.bingzer.android.dbv.contracts.ColumnSelectable;
+import com.bingzer.android.dbv.contracts.ColumnarSelectable;
 import com.bingzer.android.dbv.contracts.CursorEnumerable;
+import com.bingzer.android.dbv.contracts.EntityEnumerable;
 import com.bingzer.android.dbv.contracts.EntitySelectable;
+import com.bingzer.android.dbv.contracts.LazyEntitySelectable;
 import com.bingzer.android.dbv.contracts.Groupable;
 import com.bingzer.android.dbv.contracts.Pagination;
+import com.bingzer.android.dbv.contracts.RowReadable;
+import com.bingzer.android.dbv.contracts.RowStreamable;
 
 /**
  * For select statement
@@ -30,8 +35,8 @@ import com.bingzer.android.dbv.contracts.Pagination;
  *     <a href="https://github.com/bingzer/DbQuery/wiki">https://github.com/bingzer/DbQuery/wiki</a>
  * </p>
  */
-public interface Select extends IQuery<Cursor>, EntitySelectable,
-                                    CursorEnumerable, ColumnSelectable,
+public interface Select extends IQuery<Cursor>, EntitySelectable, LazyEntitySelectable,
+                                    CursorEnumerable, EntityEnumerable, ColumnSelectable, ColumnarSelectable, RowStreamable, RowReadable,
                                     Pagination, Groupable /*,Unionable*/ {
 
     /**
@@ -55,15 +60,75 @@ public interface Select extends IQuery<Cursor>, EntitySelectable,
      */
     OrderBy orderBy(String... columns);
 
+    /**
+     * Keyset (seek) paging. Instead of skipping <code>OFFSET</code> rows, every page
+     * continues after the last row of the previous page:
+     * <pre><code>
+     *   ... WHERE (k, Id) &gt; (?, ?) ORDER BY k, Id LIMIT row
+     * </code></pre>
+     * The key is made of the order by columns and the primary key,
+     * so every page costs the same no matter how deep it is.
+     * <p>
+     * Keys are remembered for the pages that have been queried, so {@link Paging#next()}
+     * and {@link Paging#previous()} always seek. Jumping to a page that hasn't been reached
+     * yet uses <code>OFFSET</code>. Selects with distinct, group by or having always use <code>OFFSET</code>,
+     * as does every page on API levels below 11.
+     * When the last row of a page has a null key, the next page uses <code>OFFSET</code>.
+     * <p>
+     * The cursor contains the key columns after the selected columns.
+     * @param row the number of rows per page
+     * @return paging
+     */
+    Paging keysetPaging(int row);
+
+    /**
+     * Sets the size (in bytes) of the <code>CursorWindow</code> for this select only.
+     * Overrides {@link com.bingzer.android.dbv.IConfig#setCursorWindowSize(int)}.
+     * <p>
+     * On API levels that don't support sized windows (below 28), a select on
+     * a rowid table (not <code>WITHOUT ROWID</code>) without <code>DISTINCT</code>, group by, order by, limit or expression columns will be fetched in chunks
+     * of rows keyed by rowid. Other selects use the platform's window.
+     * <pre><code>
+     *   Cursor cursor = db.from("Photos").select().windowSize(512 * 1024).query();
+     * </code>
+     * </pre>
+     * Window fills are reported by {@link com.bingzer.android.dbv.utils.CursorUtils#getWindowFillCount(Cursor)}
+     * @param bytes the window size in bytes, or 0 to use the platform's default
+     * @return {@link com.bingzer.android.dbv.queries.Select}
+     * @throws java.lang.IllegalArgumentException if <code>bytes</code> is negative
+     */
+    Select windowSize(int bytes);
+
     /////////////////////////////////////////////////////////////////////////////////////////
 
     /**
      * Order By
      */
-    public static interface OrderBy extends IQuery<Cursor>, EntitySelectable,
-                                                CursorEnumerable, ColumnSelectable,
+    public static interface OrderBy extends IQuery<Cursor>, EntitySelectable, LazyEntitySelectable,
+                                                CursorEnumerable, EntityEnumerable, ColumnSelectable, ColumnarSelectable, RowStreamable, RowReadable,
                                                 Pagination, Groupable {
 
+        /**
+         * Keyset (seek) paging. Instead of skipping <code>OFFSET</code> rows, every page
+         * continues after the last row of the previous page:
+         * <pre><code>
+         *   ... WHERE (k, Id) &gt; (?, ?) ORDER BY k, Id LIMIT row
+         * </code></pre>
+         * The key is made of the order by columns and the primary key,
+         * so every page costs the same no matter how deep it is.
+         * <p>
+         * Keys are remembered for the pages that have been queried, so {@link Paging#next()}
+         * and {@link Paging#previous()} always seek. Jumping to a page that hasn't been reached
+         * yet uses <code>OFFSET</code>. Selects with distinct, group by or having always use <code>OFFSET</code>,
+         * as does every page on API levels below 11.
+         * When the last row of a page has a null key, the next page uses <code>OFFSET</code>.
+         * <p>
+         * The cursor contains the key columns after the selected columns.
+         * @param row the number of rows per page
+         * @return paging
+         */
+        Paging keysetPaging(int row);
+
     }
 
 }
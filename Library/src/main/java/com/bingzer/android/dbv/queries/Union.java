@@ -18,7 +18,11 @@ package com.bingzer.android.dbv.queries;
 import android.database.Cursor;
 
 import com.bingzer.android.dbv.contracts.ColumnSelectable;
+import com.bingzer.android.dbv.contracts.ColumnarSelectable;
 import com.bingzer.android.dbv.contracts.EntitySelectable;
+import com.bingzer.android.dbv.contracts.LazyEntitySelectable;
+import com.bingzer.android.dbv.contracts.RowReadable;
+import com.bingzer.android.dbv.contracts.RowStreamable;
 import com.bingzer.android.dbv.contracts.Selectable;
 
 /**
@@ -29,7 +33,7 @@ import com.bingzer.android.dbv.contracts.Selectable;
  * </p>
  */
 public interface Union extends IQuery<Cursor>,
-                                    EntitySelectable, ColumnSelectable,
+                                    EntitySelectable, LazyEntitySelectable, ColumnSelectable, ColumnarSelectable, RowStreamable, RowReadable,
                                     Selectable {
 
 }
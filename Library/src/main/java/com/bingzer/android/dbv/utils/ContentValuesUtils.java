@@ -61,19 +61,64 @@ public final class ContentValuesUtils {
      * @param delegate the action
      */
     public static void mapContentValuesFromDelegate(ContentValues contentValues, String key, Delegate delegate){
-        if(delegate.get() == null) contentValues.putNull(key);
-        else if(delegate.getType() == String.class) contentValues.put(key, (String) delegate.get());
-        else if(delegate.getType() == Integer.class) contentValues.put(key, (Integer) delegate.get());
-        else if(delegate.getType() == Boolean.class) contentValues.put(key, (Boolean) delegate.get());
-        else if(delegate.getType() == Double.class) contentValues.put(key, (Double) delegate.get());
-        else if(delegate.getType() == Long.class) contentValues.put(key, (Long) delegate.get());
-        else if(delegate.getType() == Short.class) contentValues.put(key, (Short) delegate.get());
-        else if(delegate.getType() == byte[].class) contentValues.put(key, (byte[]) delegate.get());
-        else if(delegate.getType() == Byte.class) contentValues.put(key, (Byte) delegate.get());
-        else if(delegate.getType() == Float.class) contentValues.put(key, (Float) delegate.get());
-
-        // TODO: Fix the exception message
-        else throw new IllegalArgumentException("Unmapped");
+        switch (delegate.getTypeTag()){
+            case Delegate.TYPE_PRIMITIVE_INT:
+                contentValues.put(key, ((Delegate.PrimitiveInt) delegate).getInt());
+                return;
+            case Delegate.TYPE_PRIMITIVE_LONG:
+                contentValues.put(key, ((Delegate.PrimitiveLong) delegate).getLong());
+                return;
+            case Delegate.TYPE_PRIMITIVE_SHORT:
+                contentValues.put(key, ((Delegate.PrimitiveShort) delegate).getShort());
+                return;
+            case Delegate.TYPE_PRIMITIVE_DOUBLE:
+                contentValues.put(key, ((Delegate.PrimitiveDouble) delegate).getDouble());
+                return;
+            case Delegate.TYPE_PRIMITIVE_FLOAT:
+                contentValues.put(key, ((Delegate.PrimitiveFloat) delegate).getFloat());
+                return;
+            case Delegate.TYPE_PRIMITIVE_BOOLEAN:
+                contentValues.put(key, ((Delegate.PrimitiveBoolean) delegate).getBoolean());
+                return;
+        }
+
+        Object value = delegate.get();
+        if(value == null){
+            contentValues.putNull(key);
+            return;
+        }
+
+        switch (delegate.getTypeTag()){
+            case Delegate.TYPE_STRING:
+                contentValues.put(key, (String) value);
+                break;
+            case Delegate.TYPE_INTEGER:
+                contentValues.put(key, (Integer) value);
+                break;
+            case Delegate.TYPE_BOOLEAN:
+                contentValues.put(key, (Boolean) value);
+                break;
+            case Delegate.TYPE_DOUBLE:
+                contentValues.put(key, (Double) value);
+                break;
+            case Delegate.TYPE_LONG:
+                contentValues.put(key, (Long) value);
+                break;
+            case Delegate.TYPE_SHORT:
+                contentValues.put(key, (Short) value);
+                break;
+            case Delegate.TYPE_BYTES:
+                contentValues.put(key, (byte[]) value);
+                break;
+            case Delegate.TYPE_BYTE:
+                contentValues.put(key, (Byte) value);
+                break;
+            case Delegate.TYPE_FLOAT:
+                contentValues.put(key, (Float) value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unmapped delegate type: " + delegate.getType());
+        }
     }
 
     /**
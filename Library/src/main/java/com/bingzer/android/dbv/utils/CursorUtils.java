@@ -16,12 +16,18 @@
 package com.bingzer.android.dbv.utils;
 
 import android.database.Cursor;
+import android.os.Bundle;
 
 /**
  * Collection of utility methods that's cursor related
  */
 public final class CursorUtils {
 
+    /**
+     * Key of the number of window fills in {@link Cursor#getExtras()}
+     */
+    public static final String EXTRA_WINDOW_FILLS = "com.bingzer.android.dbv.WINDOW_FILLS";
+
     /**
      * Try to return value from cursor
      * @param cursor the target cursor
@@ -45,6 +51,18 @@ public final class CursorUtils {
         return (T) DelegateUtils.getObjectFromCursor(cursor, columnIndex);
     }
 
+    /**
+     * Returns how many times the cursor has filled its window so far.
+     * Cursors returned by a query report this number, as well as
+     * any <code>CursorWrapper</code> around them
+     * @param cursor the cursor
+     * @return number of window fills, -1 if the cursor doesn't report it
+     */
+    public static int getWindowFillCount(Cursor cursor){
+        Bundle extras = cursor.getExtras();
+        return extras == null ? -1 : extras.getInt(EXTRA_WINDOW_FILLS, -1);
+    }
+
     //////////////////////////////////////////////////////////////////////////////////////////
 
     private CursorUtils(){
@@ -36,18 +36,55 @@ public final class DelegateUtils {
      */
     @SuppressWarnings("unchecked")
     public static void mapDelegateFromCursor(Delegate delegate, Cursor cursor, int index){
-        if(delegate.getType() == String.class) delegate.set(cursor.getString(index));
-        else if(delegate.getType() == Integer.class) delegate.set(cursor.getInt(index));
-        else if(delegate.getType() == Boolean.class) delegate.set(cursor.getInt(index) == 1);
-        else if(delegate.getType() == Double.class) delegate.set(cursor.getDouble(index));
-        else if(delegate.getType() == Long.class) delegate.set(cursor.getLong(index));
-        else if(delegate.getType() == Short.class) delegate.set(cursor.getShort(index));
-        else if(delegate.getType() == Float.class) delegate.set(cursor.getFloat(index));
-        else if(delegate.getType() == byte[].class) delegate.set(cursor.getBlob(index));
-        else if(delegate.getType() == Object.class) delegate.set(getObjectFromCursor(cursor, index));
-
-        // TODO: Fix the exception message
-        else throw new IllegalArgumentException("Unmapped");
+        switch (delegate.getTypeTag()){
+            case Delegate.TYPE_STRING:
+                delegate.set(cursor.getString(index));
+                break;
+            case Delegate.TYPE_INTEGER:
+                delegate.set(cursor.getInt(index));
+                break;
+            case Delegate.TYPE_BOOLEAN:
+                delegate.set(cursor.getInt(index) == 1);
+                break;
+            case Delegate.TYPE_DOUBLE:
+                delegate.set(cursor.getDouble(index));
+                break;
+            case Delegate.TYPE_LONG:
+                delegate.set(cursor.getLong(index));
+                break;
+            case Delegate.TYPE_SHORT:
+                delegate.set(cursor.getShort(index));
+                break;
+            case Delegate.TYPE_FLOAT:
+                delegate.set(cursor.getFloat(index));
+                break;
+            case Delegate.TYPE_BYTES:
+                delegate.set(cursor.getBlob(index));
+                break;
+            case Delegate.TYPE_OBJECT:
+                delegate.set(getObjectFromCursor(cursor, index));
+                break;
+            case Delegate.TYPE_PRIMITIVE_INT:
+                ((Delegate.PrimitiveInt) delegate).setInt(cursor.getInt(index));
+                break;
+            case Delegate.TYPE_PRIMITIVE_LONG:
+                ((Delegate.PrimitiveLong) delegate).setLong(cursor.getLong(index));
+                break;
+            case Delegate.TYPE_PRIMITIVE_SHORT:
+                ((Delegate.PrimitiveShort) delegate).setShort(cursor.getShort(index));
+                break;
+            case Delegate.TYPE_PRIMITIVE_DOUBLE:
+                ((Delegate.PrimitiveDouble) delegate).setDouble(cursor.getDouble(index));
+                break;
+            case Delegate.TYPE_PRIMITIVE_FLOAT:
+                ((Delegate.PrimitiveFloat) delegate).setFloat(cursor.getFloat(index));
+                break;
+            case Delegate.TYPE_PRIMITIVE_BOOLEAN:
+                ((Delegate.PrimitiveBoolean) delegate).setBoolean(cursor.getInt(index) == 1);
+                break;
+            default:
+                throw new IllegalArgumentException("Unmapped delegate type: " + delegate.getType());
+        }
     }
 
     /**
@@ -18,9 +18,18 @@ package com.bingzer.android.dbv.utils;
 import android.database.Cursor;
 
 import com.bingzer.android.dbv.Delegate;
+import com.bingzer.android.dbv.IBaseEntity;
 import com.bingzer.android.dbv.IEntity;
 import com.bingzer.android.dbv.IEntityList;
+import com.bingzer.android.dbv.IEntityMapper;
+import com.bingzer.android.dbv.ILazyEntityList;
 import com.bingzer.android.dbv.contracts.PrimaryKeyIdentifier;
+import com.bingzer.android.dbv.queries.ISequence;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Created by Ricky on 4/26/2014.
@@ -46,60 +55,362 @@ public final class EntityUtils {
      * @param cursor the cursor
      */
     public static void mapEntityFromCursor(PrimaryKeyIdentifier identifier, IEntity entity, Cursor cursor){
-        Delegate.Mapper mapper = new Delegate.Mapper(identifier);
-        entity.map(mapper);
+        new MappingPlan(identifier, cursor).map(entity);
+    }
 
-        for(int i = 0; i < cursor.getColumnCount(); i++){
-            String columnName = cursor.getColumnName(i);
-            Delegate delegate = mapper.get(columnName);
-            if(delegate != null){
-                DelegateUtils.mapDelegateFromCursor(delegate, cursor, i);
-            }
-        }
+    /**
+     * Maps an entity list from cursor. Cursor will NOT be automatically closed.
+     * It's important for you to close it after calling this method.
+     * <p>
+     * Entities that are already in the list (same id) are refreshed,
+     * others are created and added to the list.
+     * @param identifier the table
+     * @param entityList the list to map
+     * @param cursor the cursor
+     * @param <E> type of IEntity
+     */
+    public static <E extends IEntity> void mapEntityListFromCursor(PrimaryKeyIdentifier identifier, IEntityList<E> entityList, Cursor cursor){
+        mapEntityListFromCursor(identifier, entityList, cursor, false);
     }
 
     /**
      * Maps an entity list from cursor. Cursor will NOT be automatically closed.
      * It's important for you to close it after calling this method.
+     * <p>
+     * When <code>appendOnly</code> is true, every row is added to the list as a new entity
+     * without looking for an existing entity with the same id. Use it when the list
+     * is known to be empty (and the rows have unique ids).
      * @param identifier the table
      * @param entityList the list to map
      * @param cursor the cursor
+     * @param appendOnly true to skip matching rows to existing entities
      * @param <E> type of IEntity
      */
     @SuppressWarnings("unchecked")
-    public static <E extends IEntity> void mapEntityListFromCursor(PrimaryKeyIdentifier identifier, IEntityList<E> entityList, Cursor cursor){
-        Delegate.Mapper mapper = new Delegate.Mapper(identifier);
-        while(cursor.moveToNext()){
-            int columnIdIndex = cursor.getColumnIndex(identifier.getPrimaryKeyColumn());
-            int id = -1;
-            if(columnIdIndex >= 0) id = cursor.getInt(columnIdIndex);
+    public static <E extends IEntity> void mapEntityListFromCursor(PrimaryKeyIdentifier identifier, IEntityList<E> entityList, Cursor cursor, boolean appendOnly){
+        MappingPlan plan = new MappingPlan(identifier, cursor);
+        int columnIdIndex = cursor.getColumnIndex(plan.idColumn);
+
+        EntityIndex index = null;
+        if(!appendOnly){
+            // the first entity with the id wins
+            index = new EntityIndex(CollectionUtils.size(entityList) + cursor.getCount());
+            for(E e : entityList){
+                index.putIfAbsent(e.getId(), e);
+            }
+        }
 
+        while(cursor.moveToNext()){
             E entity = null;
-            for(IEntity e : entityList){
-                if(e.getId() == id){
-                    entity = (E)e;
-                    break;
-                }
+            if(index != null){
+                long id = -1;
+                if(columnIdIndex >= 0) id = cursor.getLong(columnIdIndex);
+                entity = (E) index.get(id);
             }
+
             if(entity == null){
                 // creates new generic entity
                 entity = entityList.newEntity();
                 // add to the collection
                 entityList.add(entity);
+                plan.map(entity);
+                if(index != null) index.putIfAbsent(entity.getId(), entity);
+            }
+            else {
+                plan.map(entity);
+            }
+        }// end while
+    }
+
+    /**
+     * Maps every row of the cursor into the same entity and calls the sequence
+     * until it returns false. Cursor will NOT be automatically closed.
+     * @param identifier the table
+     * @param entity the entity (reused for every row)
+     * @param cursor the cursor
+     * @param sequence the sequence
+     * @param <E> type of IEntity
+     */
+    public static <E extends IEntity> void mapEntitySequenceFromCursor(PrimaryKeyIdentifier identifier, E entity, Cursor cursor, ISequence<E> sequence){
+        MappingPlan plan = new MappingPlan(identifier, cursor);
+        while(cursor.moveToNext()){
+            plan.map(entity);
+            if(!sequence.next(entity))
+                break;
+        }
+    }
+
+    /**
+     * Creates a list that maps the entities from the cursor only when they're accessed.
+     * The cursor is closed when the list is closed (or if the window size is invalid).
+     * @param identifier the table
+     * @param entityList creates the entities, nothing is added to it
+     * @param cursor the cursor
+     * @param windowSize the number of entities kept in memory
+     * @param <E> type of IEntity
+     * @return the lazy list
+     * @see ILazyEntityList
+     */
+    public static <E extends IEntity> ILazyEntityList<E> newLazyEntityList(PrimaryKeyIdentifier identifier, IEntityList<E> entityList, Cursor cursor, int windowSize){
+        if(windowSize <= 0){
+            cursor.close();
+            throw new IllegalArgumentException("Window size must be over 0");
+        }
+        return new LazyEntityList<E>(identifier, entityList, cursor, windowSize);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Maps the current row of a cursor to entities.
+     * The cursor columns are resolved once. The plan then remembers in what order the entity
+     * maps its columns (the same order for every entity of the same type), along with
+     * the cursor index of each column. The delegates are set as soon as
+     * they're mapped, there's no need to collect them first.
+     * <p>
+     * If the entity has a generated {@link IEntityMapper}, the fields are read
+     * directly from the cursor and no delegate is used at all.
+     */
+    private static final class MappingPlan implements IEntity.Mapper {
+        private final String idColumn;
+        private final Cursor cursor;
+        private final Map<String, Integer> columnIndices;
+
+        private String[] columns = new String[8];
+        private int[] indices = new int[8];
+        private int size;
+        private int position;
+
+        private Class<?> entityClass;
+        private IEntityMapper<IEntity> entityMapper;
+        private int[] entityIndices;
+
+        MappingPlan(PrimaryKeyIdentifier identifier, Cursor cursor){
+            this.idColumn = identifier.getPrimaryKeyColumn();
+            this.cursor = cursor;
+
+            String[] columnNames = cursor.getColumnNames();
+            columnIndices = new HashMap<String, Integer>(columnNames.length * 2);
+            for(int i = 0; i < columnNames.length; i++){
+                // last one wins if there are duplicate names
+                columnIndices.put(columnNames[i], i);
+            }
+        }
+
+        void map(IEntity entity){
+            if(entity.getClass() != entityClass){
+                prepare(entity);
+            }
+
+            if(entityMapper != null){
+                Integer idIndex = columnIndices.get(idColumn);
+                if(idIndex != null) ((IBaseEntity) entity).setId(cursor.getLong(idIndex));
+                entityMapper.read(entity, cursor, entityIndices);
+            }
+            else {
+                position = 0;
+                entity.map(this);
+            }
+        }
+
+        @Override
+        public void map(String column, Delegate delegate) {
+            int slot = position++;
+            if(slot >= size || !column.equals(columns[slot])){
+                plan(slot, column);
+            }
+
+            int index = indices[slot];
+            if(index >= 0){
+                DelegateUtils.mapDelegateFromCursor(delegate, cursor, index);
             }
+        }
+
+        @Override
+        public void mapId(Delegate<Long> delegate) {
+            map(idColumn, delegate);
+        }
+
+        /**
+         * Delegates are not kept
+         */
+        @Override
+        public void clear() {
+            // nothing
+        }
 
-            // clear the mapper
-            mapper.clear();
-            // assign the mapper
-            entity.map(mapper);
-            for(int i = 0; i < cursor.getColumnCount(); i++){
-                String columnName = cursor.getColumnName(i);
-                Delegate delegate = mapper.get(columnName);
-                if(delegate != null){
-                    DelegateUtils.mapDelegateFromCursor(delegate, cursor, i);
+        /**
+         * Delegates are not kept, always returns null
+         */
+        @Override
+        public Delegate get(String column) {
+            return null;
+        }
+
+        private void prepare(IEntity entity){
+            entityClass = entity.getClass();
+            entityMapper = MapperUtils.getMapper(entity);
+
+            if(entityMapper != null){
+                String[] mapperColumns = entityMapper.getColumns();
+                entityIndices = new int[mapperColumns.length];
+                for(int i = 0; i < mapperColumns.length; i++){
+                    Integer index = columnIndices.get(mapperColumns[i]);
+                    entityIndices[i] = index == null ? -1 : index;
                 }
             }
-        }// end while
+        }
+
+        private void plan(int slot, String column){
+            if(slot >= columns.length){
+                // Arrays.copyOf() is API 9
+                int capacity = columns.length * 2;
+                String[] newColumns = new String[capacity];
+                int[] newIndices = new int[capacity];
+                System.arraycopy(columns, 0, newColumns, 0, size);
+                System.arraycopy(indices, 0, newIndices, 0, size);
+                columns = newColumns;
+                indices = newIndices;
+            }
+
+            Integer index = columnIndices.get(column);
+            columns[slot] = column;
+            indices[slot] = index == null ? -1 : index;
+            if(slot >= size) size = slot + 1;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Cursor-backed list. Entities are kept in a LRU window keyed by their positions,
+     * the eldest entity is recycled to map the next row
+     */
+    private static final class LazyEntityList<E extends IEntity> extends AbstractList<E> implements ILazyEntityList<E> {
+        private final IEntityList<E> factory;
+        private final Map<Integer, E> window;
+        private final int size;
+        private MappingPlan plan;
+        private Cursor cursor;
+        private E recycled;
+
+        LazyEntityList(PrimaryKeyIdentifier identifier, IEntityList<E> factory, Cursor cursor, final int windowSize){
+            this.factory = factory;
+            this.cursor = cursor;
+            this.size = cursor.getCount();
+            this.plan = new MappingPlan(identifier, cursor);
+            this.window = new LinkedHashMap<Integer, E>(Math.min(windowSize, size) * 2, 0.75f, true){
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, E> eldest) {
+                    if(size() > windowSize){
+                        recycled = eldest.getValue();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        @Override
+        public E get(int position) {
+            if(cursor == null) throw new IllegalStateException("List is closed");
+            if(position < 0 || position >= size)
+                throw new IndexOutOfBoundsException("Position: " + position + ", Size: " + size);
+
+            E entity = window.get(position);
+            if(entity == null){
+                if(!cursor.moveToPosition(position))
+                    throw new IndexOutOfBoundsException("Position: " + position + ", Size: " + size);
+
+                entity = recycled != null ? recycled : factory.newEntity();
+                recycled = null;
+                plan.map(entity);
+                // may evict (and recycle) the eldest
+                window.put(position, entity);
+            }
+
+            return entity;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public E newEntity() {
+            return factory.newEntity();
+        }
+
+        @Override
+        public boolean isClosed() {
+            return cursor == null;
+        }
+
+        @Override
+        public void close() {
+            if(cursor != null){
+                cursor.close();
+                cursor = null;
+                plan = null;
+                recycled = null;
+                window.clear();
+            }
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Open addressing hash map of entities keyed by their (primitive) ids
+     */
+    private static final class EntityIndex {
+        private long[] ids;
+        private Object[] entities;
+        private int size;
+
+        EntityIndex(int expectedSize){
+            int capacity = 16;
+            while(capacity < expectedSize * 2) capacity <<= 1;
+            ids = new long[capacity];
+            entities = new Object[capacity];
+        }
+
+        Object get(long id){
+            int mask = ids.length - 1;
+            for(int i = hash(id) & mask; entities[i] != null; i = (i + 1) & mask){
+                if(ids[i] == id) return entities[i];
+            }
+            return null;
+        }
+
+        void putIfAbsent(long id, Object entity){
+            int mask = ids.length - 1;
+            int i = hash(id) & mask;
+            for(; entities[i] != null; i = (i + 1) & mask){
+                if(ids[i] == id) return;
+            }
+
+            ids[i] = id;
+            entities[i] = entity;
+            if(++size * 2 > ids.length) rehash();
+        }
+
+        private void rehash(){
+            long[] oldIds = ids;
+            Object[] oldEntities = entities;
+            ids = new long[oldIds.length * 2];
+            entities = new Object[oldEntities.length * 2];
+            size = 0;
+            for(int i = 0; i < oldIds.length; i++){
+                if(oldEntities[i] != null) putIfAbsent(oldIds[i], oldEntities[i]);
+            }
+        }
+
+        private static int hash(long id){
+            long h = id * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////
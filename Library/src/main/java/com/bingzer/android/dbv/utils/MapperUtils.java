@@ -0,0 +1,110 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.utils;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteProgram;
+
+import com.bingzer.android.dbv.AnnotatedEntity;
+import com.bingzer.android.dbv.IEntity;
+import com.bingzer.android.dbv.IEntityMapper;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Finds generated {@link com.bingzer.android.dbv.IEntityMapper}.
+ * The generated class is looked up only once per entity class.
+ */
+public final class MapperUtils {
+
+    /** marks an entity class without any generated mapper */
+    private static final IEntityMapper<?> NONE = new IEntityMapper<IEntity>() {
+        @Override public String[] getColumns() { return new String[0]; }
+        @Override public void read(IEntity entity, Cursor cursor, int[] columnIndices) { }
+        @Override public void bind(IEntity entity, SQLiteProgram program, int startIndex) { }
+        @Override public void map(IEntity entity, IEntity.Mapper mapper) { }
+    };
+
+    private static final Map<Class<?>, IEntityMapper<?>> mappers = new HashMap<Class<?>, IEntityMapper<?>>();
+
+    /**
+     * Returns the generated mapper for the entity class
+     * @param entityClass the entity class
+     * @param <E> entity type
+     * @return the mapper, null if none was generated
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends IEntity> IEntityMapper<E> getMapper(Class<?> entityClass){
+        IEntityMapper<?> mapper;
+        synchronized (mappers){
+            mapper = mappers.get(entityClass);
+            if(mapper == null){
+                mapper = findMapper(entityClass);
+                mappers.put(entityClass, mapper);
+            }
+        }
+
+        return mapper == NONE ? null : (IEntityMapper<E>) mapper;
+    }
+
+    /**
+     * Returns the generated mapper of an {@link com.bingzer.android.dbv.AnnotatedEntity},
+     * from its class or the closest super class that has one.
+     * Other entities are always mapped by their own <code>map()</code>
+     * @param entity the entity
+     * @param <E> entity type
+     * @return the mapper, null if the entity is not annotated or none was generated
+     */
+    public static <E extends IEntity> IEntityMapper<E> getMapper(IEntity entity){
+        if(!(entity instanceof AnnotatedEntity)) return null;
+
+        IEntityMapper<E> mapper = null;
+        for(Class<?> cls = entity.getClass(); mapper == null && cls != AnnotatedEntity.class; cls = cls.getSuperclass()){
+            mapper = getMapper(cls);
+        }
+        return mapper;
+    }
+
+    private static IEntityMapper<?> findMapper(Class<?> entityClass){
+        try{
+            Class<?> mapperClass = Class.forName(entityClass.getName() + IEntityMapper.SUFFIX, true, entityClass.getClassLoader());
+            return (IEntityMapper<?>) mapperClass.getDeclaredConstructor().newInstance();
+        }
+        catch (ClassNotFoundException e){
+            return NONE;
+        }
+        catch (NoSuchMethodException e){
+            throw new IllegalArgumentException(e);
+        }
+        catch (InvocationTargetException e){
+            throw new IllegalArgumentException(e);
+        }
+        catch (InstantiationException e){
+            throw new IllegalArgumentException(e);
+        }
+        catch (IllegalAccessException e){
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private MapperUtils(){
+        // nothing
+    }
+}
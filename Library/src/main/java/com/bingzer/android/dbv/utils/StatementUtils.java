@@ -0,0 +1,114 @@
+/**
+ * Copyright 2014 Ricky Tobing
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance insert the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bingzer.android.dbv.utils;
+
+import android.database.sqlite.SQLiteProgram;
+
+import com.bingzer.android.dbv.Delegate;
+
+/**
+ * Collection of utility methods to bind arguments to a compiled
+ * SQLite program (i.e: <code>SQLiteStatement</code> or <code>SQLiteQuery</code>).
+ * Unlike {@link Utils#toStringArray(Object...)}, values are bound
+ * using their own type (long, double, blob, etc..)
+ */
+public final class StatementUtils {
+
+    /**
+     * Binds all arguments to the program. The first argument
+     * will be bound to index 1.
+     * @param program the program (statement or query)
+     * @param args the arguments (maybe null)
+     */
+    public static void bindArgs(SQLiteProgram program, Object... args){
+        if(args == null) return;
+
+        for(int i = 0; i < args.length; i++){
+            bindArg(program, i + 1, args[i]);
+        }
+    }
+
+    /**
+     * Binds a single argument to the program by its type.
+     * @param program the program (statement or query)
+     * @param index the 1-based index
+     * @param value the value (maybe null)
+     */
+    public static void bindArg(SQLiteProgram program, int index, Object value){
+        if(value == null) program.bindNull(index);
+        else if(value instanceof String) program.bindString(index, (String) value);
+        else if(value instanceof Long || value instanceof Integer
+                || value instanceof Short || value instanceof Byte) program.bindLong(index, ((Number) value).longValue());
+        else if(value instanceof Double || value instanceof Float) program.bindDouble(index, ((Number) value).doubleValue());
+        else if(value instanceof Boolean) program.bindLong(index, ((Boolean) value) ? 1 : 0);
+        else if(value instanceof byte[]) program.bindBlob(index, (byte[]) value);
+        else if(value instanceof Delegate) bindDelegate(program, index, (Delegate) value);
+        else program.bindString(index, value.toString());
+    }
+
+    /**
+     * Binds the value of a delegate to the program.
+     * Primitive delegates are bound without boxing their values.
+     * @param program the program (statement or query)
+     * @param index the 1-based index
+     * @param delegate the delegate
+     */
+    public static void bindDelegate(SQLiteProgram program, int index, Delegate delegate){
+        switch (delegate.getTypeTag()){
+            case Delegate.TYPE_PRIMITIVE_INT:
+                program.bindLong(index, ((Delegate.PrimitiveInt) delegate).getInt());
+                break;
+            case Delegate.TYPE_PRIMITIVE_LONG:
+                program.bindLong(index, ((Delegate.PrimitiveLong) delegate).getLong());
+                break;
+            case Delegate.TYPE_PRIMITIVE_SHORT:
+                program.bindLong(index, ((Delegate.PrimitiveShort) delegate).getShort());
+                break;
+            case Delegate.TYPE_PRIMITIVE_DOUBLE:
+                program.bindDouble(index, ((Delegate.PrimitiveDouble) delegate).getDouble());
+                break;
+            case Delegate.TYPE_PRIMITIVE_FLOAT:
+                program.bindDouble(index, ((Delegate.PrimitiveFloat) delegate).getFloat());
+                break;
+            case Delegate.TYPE_PRIMITIVE_BOOLEAN:
+                program.bindLong(index, ((Delegate.PrimitiveBoolean) delegate).getBoolean() ? 1 : 0);
+                break;
+            case Delegate.TYPE_STRING:
+            case Delegate.TYPE_INTEGER:
+            case Delegate.TYPE_BOOLEAN:
+            case Delegate.TYPE_DOUBLE:
+            case Delegate.TYPE_LONG:
+            case Delegate.TYPE_SHORT:
+            case Delegate.TYPE_FLOAT:
+            case Delegate.TYPE_BYTES:
+            case Delegate.TYPE_BYTE:
+                bindArg(program, index, delegate.get());
+                break;
+            default:
+                // same as ContentValuesUtils: only null is supported for any other type
+                if(delegate.get() != null)
+                    throw new IllegalArgumentException("Unmapped delegate type: " + delegate.getType());
+                program.bindNull(index);
+                break;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+
+    private StatementUtils() {
+        // nothing
+    }
+}
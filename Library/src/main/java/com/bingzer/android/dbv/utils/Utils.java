@@ -40,6 +40,11 @@ public final class Utils {
     private static final char QUESTION_MARK_CHAR = QUESTION_MARK.charAt(1);
     private static final String NULL = "null";
 
+    /**
+     * Empty arguments
+     */
+    public static final Object[] EMPTY_ARGS = new Object[0];
+
     /**
      * Use this method for built-in and/ pre-sanitize methods
      * provided by Android. (i.e: SQLiteDatabase.update() or insert())
@@ -93,6 +98,61 @@ public final class Utils {
         }
     }
 
+    /**
+     * Returns the arguments that should be bound to <code>clause</code>.
+     * The returned array always has exactly as many elements as there are
+     * '?' placeholders in <code>clause</code> (placeholders inside quoted
+     * literals are ignored). Missing arguments are treated as <code>null</code>
+     * and extra arguments are dropped, which mirrors {@link #bindArgs(String, Object...)}.
+     * @param clause any clause that has '?' (maybe null)
+     * @param args arguments
+     * @return arguments to bind (never null)
+     */
+    public static Object[] normalizeArgs(String clause, Object... args){
+        final int count = countPlaceholders(clause);
+        if(count == 0) return EMPTY_ARGS;
+        if(args != null && args.length == count) return args;
+
+        Object[] normalized = new Object[count];
+        if(args != null) System.arraycopy(args, 0, normalized, 0, Math.min(count, args.length));
+        return normalized;
+    }
+
+    /**
+     * Concatenates two arrays of arguments
+     * @param first the first arguments (maybe null)
+     * @param second the second arguments (maybe null)
+     * @return concatenated arguments (never null)
+     */
+    public static Object[] concatArgs(Object[] first, Object[] second){
+        if(first == null || first.length == 0) return second == null ? EMPTY_ARGS : second;
+        if(second == null || second.length == 0) return first;
+
+        Object[] result = new Object[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    /**
+     * Counts '?' placeholders in a clause. Any '?' found inside
+     * a quoted string literal will not be counted.
+     * @param clause the clause (maybe null)
+     * @return number of placeholders
+     */
+    public static int countPlaceholders(String clause){
+        if(clause == null) return 0;
+
+        int count = 0;
+        boolean quoted = false;
+        for(int i = 0; i < clause.length(); i++){
+            final char c = clause.charAt(i);
+            if(c == '\'') quoted = !quoted;
+            else if(c == QUESTION_MARK_CHAR && !quoted) count++;
+        }
+        return count;
+    }
+
     /**
      * Safe escape /sanitize an object. Object is checked to see
      * if it's a String/Integer/null/Character or custom.